@@ -16,10 +16,22 @@
  */
 package de.linearbits.suda2;
 
+import java.io.File;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Comparator;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import de.linearbits.suda2.SUDA2ColumnConstraints.Context;
 
 /**
  * This class implements the SUDA2 algorithm
@@ -50,17 +62,115 @@ public class SUDA2 {
             this.second = second;
         }
     }
+
+    /**
+     * Thrown when the time budget of an execution is exceeded
+     *
+     * @author Fabian Prasser
+     */
+    private static class BudgetExceededException extends RuntimeException {
+
+        /** SVUID */
+        private static final long serialVersionUID = 6171374011413541718L;
+    }
     
+    /** Minimal number of rows per thread when building the initial state in parallel */
+    private static final int       MIN_ROWS_PER_THREAD = 10000;
+    /** Minimal number of candidates sharing a pivot, which are verified at once */
+    private static final int       MIN_CANDIDATES_PER_VERIFICATION = 16;
+
     /** The data */
-    private final int[][]         data;
+    private final int[][]          input;
+    /** The data in the order in which rows are registered */
+    private int[][]                data;
     /** Number of columns */
-    private final int             columns;
+    private final int              columns;
     /** The result */
-    private SUDA2Result           result;
+    private SUDA2Result            result;
     /** Progress listener */
-    private SUDA2ListenerProgress progressListener;
+    private SUDA2ListenerProgress  progressListener;
     /** Stop flag */
-    private boolean               stop;
+    private boolean                stop;
+    /** Whether identical records are collapsed into a single row */
+    private boolean                collapseDuplicates;
+    /** Whether perfectly correlated items are merged on the first level */
+    private boolean                mergeCorrelatedItems;
+    /** Whether perfectly correlated items are merged on all levels */
+    private boolean                mergeCorrelatedItemsOnAllLevels;
+    /** Projection cache */
+    private SUDA2ProjectionCache   cache;
+    /** Column constraints */
+    private SUDA2ColumnConstraints constraints;
+    /** Initial state, if provided or retained */
+    private Pair<SUDA2ItemRegistry, Pair<Integer, Integer>> state;
+    /** If positive, only keys of this length are registered */
+    private int                    keyLength;
+    /** Whether the execution is bounded by a deadline */
+    private boolean                budgeted;
+    /** Deadline in terms of System.nanoTime() */
+    private long                   deadline;
+    /** Checkpoint file */
+    private File                   checkpointFile;
+    /** Interval between checkpoints in milliseconds */
+    private long                   checkpointInterval;
+    /** Checkpoint of the current execution */
+    private SUDA2Checkpoint        checkpoint;
+    /** Number of reference items on the first level processed before resuming, -1 if not resumed */
+    private int                    resumed = -1;
+    /** Number of reference items on the first level processed, -1 if not started */
+    private int                    processed = -1;
+    /** Number of threads used for building the initial state */
+    private int                    threads = 1;
+    /** Whether the initial state is retained between executions */
+    private boolean                retainState;
+    /** Number of reference items on the first level preceding the range to process */
+    private int                    rangeFrom = 0;
+    /** Number of reference items on the first level up to the end of the range to process */
+    private int                    rangeTo   = Integer.MAX_VALUE;
+    /** Registry of the original table if items have dense ids, which enables horizontal projections */
+    private SUDA2ItemRegistryDense dense;
+    /** Stamp per dense id, marking candidates of the current horizontal projection */
+    private int[]                  stamps;
+    /** Index of the candidate per dense id */
+    private int[]                  candidates;
+    /** Current stamp */
+    private int                    stamp;
+    /** Depth from which on projected items are represented by diffsets, 0 if disabled */
+    private int                    diffsetDepth;
+    /** Depth of the current recursion */
+    private int                    depth;
+    /** Whether projections on the first level are taken from a prefix tree */
+    private boolean                prefixTree;
+    /** Whether special rows are searched for in packed rows */
+    private boolean                packedRows;
+    /** Packed rows of the current execution, null if not used */
+    private SUDA2PackedRows        packed;
+    /** Whether candidates sharing a pivot are verified at once */
+    private boolean                bulkVerification;
+    /** Verifier for the candidates of a reference item */
+    private SUDA2Verifier          verifier;
+    /** Whether rows are reordered before they are registered */
+    private boolean                reorderRows;
+    /** Rows of the input in the order in which they are registered, null if not reordered */
+    private int[]                  order;
+    /** Policy for ordering items with equal support */
+    private SUDA2ItemOrder         itemOrder = SUDA2ItemOrder.REGISTRATION;
+    /** Order of items with equal support in the current execution, null for the order of registration */
+    private Comparator<SUDA2Item>  ties;
+    /** Whether records are grouped with fingerprints in primitive arrays */
+    private boolean                primitiveGroupify;
+    /** Whether the rows of the items of the original table are compressed */
+    private boolean                compressRows;
+    /** Maximal number of bytes held by the registries of the current recursion */
+    private long                   memoryBudget = Long.MAX_VALUE;
+    /** Estimated number of bytes held by the registries of the current recursion */
+    private long                   memory;
+    /** Directory for spilling registries, null for the default temporary directory */
+    private File                   spillDirectory;
+    /** Number of levels below the original table on which registries are spilled, 0 if disabled */
+    private int                    spillLevels;
+    /** Spill file of the current execution, null if not used */
+    private SUDA2Spill             spill;
 
     /**
      * Constructor
@@ -70,10 +180,28 @@ public class SUDA2 {
         
         // Check and init
         this.check(data);
+        this.input = data;
         this.data = data;
         this.columns = data.length == 0 ? 0 : data[0].length;
     }
 
+    /**
+     * Constructor for executing the algorithm on a subset of the columns
+     * of the data, for which the initial state is provided
+     * @param data
+     * @param columns
+     * @param registry
+     * @param numUniqueRecords
+     * @param numDuplicateRecords
+     */
+    SUDA2(int[][] data, int columns, SUDA2ItemRegistry registry, int numUniqueRecords, int numDuplicateRecords) {
+        this.check(data);
+        this.input = data;
+        this.data = data;
+        this.columns = columns;
+        this.state = new Pair<>(registry, new Pair<>(numUniqueRecords, numDuplicateRecords));
+    }
+
     /**
      * Executes the SUDA2 algorithm, calls the callback for each key found
      * 
@@ -99,7 +227,8 @@ public class SUDA2 {
         // Execute
         this.result = listener;
         this.result.init(this.columns, maxKeyLength, numUniqueRecords, numDuplicateRecords);
-        this.suda2(maxKeyLength, list, data.length);
+        this.result.setOrder(this.order);
+        this.suda2(maxKeyLength, list, data.length, constraints == null ? null : constraints.getRootContext());
     }
 
     /**
@@ -129,12 +258,35 @@ public class SUDA2 {
         
         // Execute
         this.result.init(this.columns, maxKeyLength, numUniqueRecords, numDuplicateRecords);
-        this.suda2(maxKeyLength, list, data.length);
+        this.result.setOrder(this.order);
+        this.suda2(maxKeyLength, list);
         
         // Return
         return (SUDA2StatisticsKeys)this.result;
     }
 
+    /**
+     * Executes the SUDA2 algorithm once and returns the results for all maximal key lengths
+     * from 1 to maxKeyLength. The result at index i is equal to the result of getStatisticsKeys(i + 1).
+     * 
+     * @param maxKeyLength If maxKeyLength <= 0, maxKeyLength will be set to the number of columns
+     * @return
+     */
+    public List<SUDA2StatisticsKeys> getStatisticsKeysSweep(int maxKeyLength) {
+        
+        // If maxK <= 0, maxK will be set to the number of columns
+        maxKeyLength = maxKeyLength > 0 ? maxKeyLength : columns;
+        
+        // Execute
+        List<SUDA2StatisticsKeys> results = new ArrayList<>();
+        for (int length = 1; length <= maxKeyLength; length++) {
+            results.add(new SUDA2StatisticsKeys(this.data.length, this.columns, length));
+        }
+        this.sweep(maxKeyLength, results);
+        
+        // Return
+        return results;
+    }
     /**
      * Executes the SUDA2 algorithm.
      * 
@@ -163,7 +315,8 @@ public class SUDA2 {
         
         // Execute
         this.result.init(this.columns, maxKeyLength, numUniqueRecords, numDuplicateRecords);
-        this.suda2(maxKeyLength, list, data.length);
+        this.result.setOrder(this.order);
+        this.suda2(maxKeyLength, list);
         
         // Return
         return (SUDA2StatisticsColumns)this.result;
@@ -197,190 +350,1144 @@ public class SUDA2 {
         
         // Execute
         this.result.init(this.columns, maxKeyLength, numUniqueRecords, numDuplicateRecords);
-        this.suda2(maxKeyLength, list, data.length);
+        this.result.setOrder(this.order);
+        this.suda2(maxKeyLength, list);
         
         // Return
         return (SUDA2StatisticsScores)this.result;
     }
     
     /**
-     * Sets a progress listener
-     * @param progressListener
+     * Executes the SUDA2 algorithm within the given time budget. Keys are searched for in passes
+     * of increasing length, so that all keys of small lengths, which contribute the highest scores,
+     * are found first. If the budget is exceeded, the statistics collected so far are returned.
+     * They are complete for keys up to the length returned by 
+     * {@link SUDA2StatisticsScores#getMaxCompleteKeyLength()} and may contain some of the keys 
+     * of the next length.
+     * 
+     * @param maxKeyLength If maxKeyLength <= 0, maxKeyLength will be set to the number of columns
+     * @param sdcMicroScores Whether to mimic sdcMicro or use original definition by Elliot
+     * @param budget
+     * @return
      */
-    public void setProgressListener(SUDA2ListenerProgress progressListener) {
-        this.progressListener = progressListener;
+    public SUDA2StatisticsScores getStatisticsScores(int maxKeyLength, boolean sdcMicroScores, Duration budget) {
+        
+        // Check
+        if (budget == null || budget.isNegative()) {
+            throw new IllegalArgumentException("Budget must not be negative");
+        }
+        long start = System.nanoTime();
+        long nanos = budget.getSeconds() >= Long.MAX_VALUE / 1000000000L ? Long.MAX_VALUE : budget.toNanos();
+        
+        // If maxK <= 0, maxK will be set to the number of columns
+        maxKeyLength = maxKeyLength > 0 ? maxKeyLength : columns;
+        
+        // Execute
+        SUDA2StatisticsScores result = new SUDA2StatisticsScores(this.data.length, this.columns, maxKeyLength, sdcMicroScores);
+        this.result = result;
+        
+        // Check
+        if (isEmpty(this.data)) {
+            return result;
+        }
+        
+        // Prepare
+        Pair<SUDA2ItemRegistry, Pair<Integer, Integer>> state = getInitialState();
+        SUDA2ItemRegistry list = state.first;
+        int numUniqueRecords = state.second.first;
+        int numDuplicateRecords = state.second.second;
+        
+        // Execute one pass per key length
+        this.result.init(this.columns, maxKeyLength, numUniqueRecords, numDuplicateRecords);
+        this.result.setOrder(this.order);
+        result.setMaxCompleteKeyLength(0);
+        this.budgeted = true;
+        this.deadline = start + nanos;
+        try {
+            for (int length = 1; length <= maxKeyLength; length++) {
+                this.keyLength = length;
+                this.suda2(length, list, data.length, constraints == null ? null : constraints.getRootContext());
+                result.setMaxCompleteKeyLength(length);
+            }
+        } catch (BudgetExceededException e) {
+            // Return partial result
+        } finally {
+            this.budgeted = false;
+            this.keyLength = 0;
+        }
+        
+        // Return
+        return result;
     }
-
+    
     /**
-     * Stops the process
-     * @param stop
+     * Executes the SUDA2 algorithm once and returns the results for all maximal key lengths
+     * from 1 to maxKeyLength. The result at index i is equal to the result of 
+     * getStatisticsScores(i + 1, sdcMicroScores).
+     * 
+     * @param maxKeyLength If maxKeyLength <= 0, maxKeyLength will be set to the number of columns
+     * @param sdcMicroScores Whether to mimic sdcMicro or use original definition by Elliot
+     * @return
      */
-    public void stop() {
-        this.stop = true;
-    }
+    public List<SUDA2StatisticsScores> getStatisticsScoresSweep(int maxKeyLength, boolean sdcMicroScores) {
+        
+        // If maxK <= 0, maxK will be set to the number of columns
+        maxKeyLength = maxKeyLength > 0 ? maxKeyLength : columns;
+        
+        // Execute
+        List<SUDA2StatisticsScores> results = new ArrayList<>();
+        for (int length = 1; length <= maxKeyLength; length++) {
+            results.add(new SUDA2StatisticsScores(this.data.length, this.columns, length, sdcMicroScores));
+        }
+        this.sweep(maxKeyLength, results);
         
+        // Return
+        return results;
+    }
+    
     /**
-     * Check argument
-     * @param data
+     * Sets a file for checkpoints. While executing, the progress on the first level and the
+     * state of the result are written to the file in the given interval and when the execution
+     * is stopped. An execution on the same data with the same configuration resumes from the 
+     * checkpoint. The file is deleted when the execution has finished. Checkpoints are only 
+     * supported for the statistics and not for time-budgeted executions. Pass null to disable
+     * checkpoints.
+     * 
+     * @param file
+     * @param intervalMillis
      */
-    private void check(int[][] data) {
-        if (data == null || (data.length > 0 && data[0] == null)) {
-            throw new NullPointerException("Data must not be null");
+    public void setCheckpoint(File file, long intervalMillis) {
+        if (intervalMillis < 0) {
+            throw new IllegalArgumentException("Interval must not be negative");
         }
+        this.checkpointFile = file;
+        this.checkpointInterval = intervalMillis;
     }
     
     /**
-     * Returns the initial state needed for executing the algorithm
-     * @return
+     * Sets constraints on the columns which may form a key. The recursion is pruned as soon
+     * as the columns of the reference items can no longer be part of an allowed key.
+     * Perfectly correlated items are not merged while constraints are set, as correlated
+     * items may belong to different groups of columns. Pass null to remove all constraints.
+     * 
+     * @param constraints
      */
-    private Pair<SUDA2ItemRegistry, Pair<Integer, Integer>> getInitialState() {
+    public void setColumnConstraints(SUDA2ColumnConstraints constraints) {
+        this.constraints = constraints;
+    }
 
-        // Collect all items and their support rows
-        SUDA2ItemRegistry registry = new SUDA2ItemRegistry();
-        SUDA2Groupify groupify = new SUDA2Groupify(data.length);
-        int index = 1; // Value 0 is reserved for empty entries in SUDA2IntSet
-        for (int[] row : data) {
-            if (!groupify.canBeIgnored(row)) {
-                for (int column = 0; column < columns; column++) {
-                    int value = row[column];
-                    SUDA2Item item = registry.register(column, value);
-                    item.addRow(index);
-                }
-            }
-            index++;
-        }
-        return new Pair<>(registry, new Pair<>(groupify.getNumUniqueRecords(), groupify.getNumDuplicateRecords()));
+    /**
+     * Sets whether identical records are collapsed into a single row. If enabled, row sets
+     * contain one row per equivalence class, which is the first record of the class, and
+     * supports are weighted by the sizes of the classes. This reduces the number of rows
+     * to be processed for datasets with many duplicate records.
+     * 
+     * @param collapse
+     */
+    public void setCollapseDuplicateRecords(boolean collapse) {
+        this.collapseDuplicates = collapse;
+        this.state = null;
     }
 
     /**
-     * Returns all items for the given reference item from the given list, starting at fromIndex (included)
-     * This means that all 1-MSUs can be removed beforehand.
-     * @param itemList
-     * @param reference
-     * @param fromIndex 
-     * @return
+     * Sets the policy for ordering items with equal support. The order does not change the keys
+     * found, but the number of candidates pruned and thus the execution time. Policies based on
+     * columns are evaluated for the original table. Defaults to SUDA2ItemOrder.REGISTRATION.
+     * 
+     * @param order
      */
-    private SUDA2ItemRegistry getItems(List<SUDA2Item> itemList, SUDA2Item reference, int fromIndex) {
+    public void setItemOrder(SUDA2ItemOrder order) {
+        if (order == null) {
+            throw new IllegalArgumentException("Order must not be null");
+        }
+        this.itemOrder = order;
+    }
 
-        // For all items within the given range
-        SUDA2ItemRegistry items = new SUDA2ItemRegistry();
-        List<SUDA2Item> list = itemList;
-        SUDA2IntSet referenceRows = reference.getRows();
-        for (int index = fromIndex; index < list.size(); index++) {
-            
-            // Extract item of interest
-            SUDA2Item item = list.get(index).getProjection(referenceRows);
-                        
-            // If it is contained, add it
-            if (item != null) {
-                items.add(item);
-            }
+    /**
+     * Sets the maximal number of bytes held by the registries of items, which are alive during
+     * the recursion. The number is estimated from the representations of the sets of rows. If a
+     * registry would exceed the budget, the rows of its items are compressed. If this is not
+     * sufficient, a SUDA2Exception is thrown. The registry of the original table is checked 
+     * before the first reference item is processed. Defaults to Long.MAX_VALUE.
+     * 
+     * @param bytes
+     */
+    public void setMemoryBudget(long bytes) {
+        if (bytes <= 0) {
+            throw new IllegalArgumentException("Memory budget must be positive");
         }
-        
-        // Return all items
-        return items;
+        this.memoryBudget = bytes;
     }
 
     /**
-     * Clears the list and returns all MSUs
-     * @param list
-     * @param numRecords
-     * @return
+     * Sets whether the registries of items on the given number of levels below the original table
+     * are spilled to a temporary file. When the recursion descends from such a level, the rows of
+     * its items are written to the file and mapped back into memory, where they are read from
+     * while the recursion returns to the level. This bounds the heap required by deep recursions 
+     * on large tables. The registry of the original table is never spilled. Pass 0 to disable
+     * spilling.
+     * 
+     * @param directory Directory for the file, null for the default temporary directory
+     * @param levels
      */
-    private Pair<List<SUDA2ItemSet>, List<SUDA2Item>> getMSUs(List<SUDA2Item> list, int numRecords) {
-        
-        // Prepare
-        List<SUDA2ItemSet> msus = new ArrayList<>();
-        
-        // Check the items
-        List<SUDA2Item> result = new ArrayList<SUDA2Item>();
-        for (SUDA2Item item : list) {
+    public void setSpill(File directory, int levels) {
+        if (levels < 0) {
+            throw new IllegalArgumentException("Number of levels must not be negative");
+        }
+        this.spillDirectory = directory;
+        this.spillLevels = levels;
+    }
 
-            // All unique items are already MSUs
-            if (item.getSupport() == 1) {
-                msus.add(new SUDA2ItemSet(item));
+    /**
+     * Sets whether perfectly correlated items, i.e. items with identical sets of rows,
+     * are merged into a single representative before searching for MSUs. MSUs containing
+     * a representative are expanded afterwards. If enabled for all levels, items which
+     * become perfectly correlated within the rows of a reference item are merged as well.
+     * 
+     * @param merge
+     * @param onAllLevels
+     */
+    public void setMergeCorrelatedItems(boolean merge, boolean onAllLevels) {
+        this.mergeCorrelatedItems = merge;
+        this.mergeCorrelatedItemsOnAllLevels = merge && onAllLevels;
+    }
 
-            // All items appearing in all rows can be ignored
-            } else if (item.getSupport() != numRecords) {
-                result.add(item);
-            }
+    /**
+     * Sets the depth of the recursion from which on projected items are represented by 
+     * diffsets, i.e. by the rows of the reference item which they lack instead of the rows 
+     * which they contain. Items projected onto reference items of the original table have
+     * depth 1. A diffset is only used if it is smaller than the set of rows itself, which
+     * is typical for dense data. Diffsets are not used on the first level while a projection
+     * cache is set.
+     * Defaults to 0, which disables diffsets.
+     * 
+     * @param depth
+     */
+    public void setDiffsetDepth(int depth) {
+        if (depth < 0) {
+            throw new IllegalArgumentException("Depth must not be negative");
         }
+        this.diffsetDepth = depth;
+    }
 
-        // Return
-        return new Pair<List<SUDA2ItemSet>, List<SUDA2Item>>(msus, result);
+    /**
+     * Sets whether the candidates of a reference item which share the item with the lowest
+     * support are verified at once. For each item of these candidates, a bitmap of the rows 
+     * of the shared item is built in a single scan and the special rows of each candidate are
+     * found by intersecting bitmaps. This pays off if many candidates share a pivot and contain
+     * no special row, because searching for special rows one candidate at a time can stop
+     * early otherwise. Defaults to false.
+     * 
+     * @param enabled
+     */
+    public void setBulkVerification(boolean enabled) {
+        this.bulkVerification = enabled;
     }
 
     /**
-     * Returns all 1-MSUS for the given reference item from the given list, starting at fromIndex (included)
+     * Sets whether records are grouped into equivalence classes with an open-addressing table,
+     * which stores 64-bit fingerprints of records in primitive arrays, instead of a table of
+     * entries. This may be faster for wide tables with few distinct values per column, and is
+     * slower for typical tables. Defaults to false.
      * 
-     * @param itemList
-     * @param reference
-     * @param fromIndex 
-     * @return
+     * @param enabled
      */
-    private List<SUDA2ItemSet> getMSUs(List<SUDA2Item> itemList, SUDA2Item reference, int fromIndex) {
+    public void setPrimitiveGroupify(boolean enabled) {
+        this.primitiveGroupify = enabled;
+        this.state = null;
+    }
 
-        // For all items within the given range
-        List<SUDA2ItemSet> result = new ArrayList<>();
-        List<SUDA2Item> list = itemList;
-        SUDA2IntSet referenceRows = reference.getRows();
-        for (int index = fromIndex; index < list.size(); index++) {
-            SUDA2Item item = list.get(index).get1MSU(referenceRows);
-            if (item != null) {
-                // TODO: Get rid of itemset
-                result.add(new SUDA2ItemSet(item));
-            }
-        }
-        return result;
+    /**
+     * Sets whether rows are renumbered before they are registered, so that the rows of each item
+     * form few contiguous ranges and sets of rows can more often be represented as bitsets.
+     * Rows are sorted lexicographically by their values, considering columns with fewer distinct
+     * values first. Listeners are still called with rows of the data. Defaults to false.
+     * 
+     * @param enabled
+     */
+    public void setReorderRows(boolean enabled) {
+        this.reorderRows = enabled;
+        this.order = null;
+        this.data = input;
+        this.state = null;
     }
 
     /**
-     * Check data
-     * @param data
-     * @return
+     * Sets whether records are packed into one or two words for searching special rows, 
+     * which replaces comparing the items of a candidate with the record by masking and
+     * comparing words. Each column occupies as many bits as needed for its number of 
+     * distinct values. Ignored if records do not fit into two words. Defaults to false.
+     * 
+     * @param enabled
      */
-    private boolean isEmpty(int[][] data) {
-        return data.length == 0 || data[0].length == 0;
+    public void setPackedRows(boolean enabled) {
+        this.packedRows = enabled;
     }
 
     /**
-     * Implements both checks for MSUs described in the paper
-     * @param currentList
-     * @param registry
-     * @param candidate
-     * @param referenceItem
-     * @return
+     * Sets whether the projections for the reference items of the original table are taken
+     * from a prefix tree of all rows instead of intersecting the rows of the items. The path
+     * of a row consists of its items in descending order of their rank, so that rows sharing
+     * their most frequent items are stored once. Defaults to false.
+     * 
+     * @param enabled
      */
+    public void setPrefixTree(boolean enabled) {
+        this.prefixTree = enabled;
+    }
 
-    private boolean isMSU(final List<SUDA2Item> currentList,
-                          final SUDA2ItemRegistry registry,
-                          SUDA2ItemSet candidate,
-                          SUDA2Item referenceItem) {
+    /**
+     * Sets whether the rows of the items of the original table are compressed after they
+     * have been registered. Compressed rows require about a quarter of the memory of the
+     * default representation, but lookups and intersections are slower. Defaults to false.
+     * 
+     * @param compress
+     */
+    public void setCompressRows(boolean compress) {
+        this.compressRows = compress;
+        this.state = null;
+    }
 
-        // All of the k-1 items in the candidate set must have rank > reference rank
-        // We don't need to check this, because we have only used items with higher
-        // ranks when performing the recursive call, anyways.
-        
-        // We don't need to search for the special row for candidate item sets of size 1
-        if (candidate.size() <= 1) {
-            return true;
+    /**
+     * Sets a cache for projections. Within an execution, each item is projected onto the rows
+     * of a reference item only once, so the cache only pays off for repeated executions. It
+     * stores the projections onto the reference items of the initial state, i.e. the first
+     * level of the recursion, which is retained between executions while a cache is set.
+     * On the first execution, each projection costs an additional hash lookup, and the cache
+     * retains the initial state as well as the projections, up to its size. The cache is
+     * cleared when the initial state is built. Pass null to disable caching.
+     * 
+     * @param cache
+     */
+    public void setProjectionCache(SUDA2ProjectionCache cache) {
+        this.cache = cache;
+        this.state = retainState || cache != null ? this.state : null;
+    }
+
+    /**
+     * Sets a progress listener
+     * @param progressListener
+     */
+    public void setProgressListener(SUDA2ListenerProgress progressListener) {
+        this.progressListener = progressListener;
+    }
+
+    /**
+     * Sets the number of threads used for building the initial state, which consists of 
+     * grouping records and registering items. Rows are hashed in chunks, records are grouped 
+     * in partitions of hash codes and items are registered in partitions of columns, so that
+     * the rows of each item are registered in ascending order. Defaults to 1.
+     * 
+     * @param threads
+     */
+    public void setThreads(int threads) {
+        if (threads <= 0) {
+            throw new IllegalArgumentException("Number of threads must be positive");
         }
-         
-        // Search for the special row
-        // This is one of the hottest functions in SUDA2
-        // (1) It seems to be more likely that the special row is found than that
-        //     the special row is not found -> We optimize for this path
-        // (2) It is more likely that not all of the candidate items are contained
-        //     than that the reference item is contained
+        this.threads = threads;
+    }
+
+    /**
+     * Stops the process
+     * @param stop
+     */
+    public void stop() {
+        this.stop = true;
+    }
         
-        // Find item with smallest support 
-        SUDA2IntSet rows = null;
-        SUDA2Item pivot = null;
-        int candidateSize = candidate.size();
-        for (int i = 0; i < candidateSize; i++) {
-            SUDA2Item item = candidate.get(i);
-            SUDA2IntSet _rows = registry.get(item.getId()).getRows();
-            if (rows == null || _rows.size() < rows.size()) {
+    /**
+     * Returns the number of reference items on the first level
+     * @return
+     */
+    int getNumReferenceItems() {
+        if (isEmpty(this.data)) {
+            return 0;
+        }
+        return getMSUs(getInitialState().first.getSortedItemList(), data.length).second.size();
+    }
+
+    /**
+     * Executes the SUDA2 algorithm for a range of reference items on the first level, in the order
+     * in which they are processed by a complete execution. Keys consisting of one item are 
+     * registered only for the range starting with the first reference item.
+     * 
+     * @param result
+     * @param maxKeyLength If maxKeyLength <= 0, maxKeyLength will be set to the number of columns
+     * @param from Index of the first reference item, included
+     * @param to Index of the last reference item, excluded
+     */
+    void getStatistics(SUDA2Result result, int maxKeyLength, int from, int to) {
+        
+        // If maxK <= 0, maxK will be set to the number of columns
+        maxKeyLength = maxKeyLength > 0 ? maxKeyLength : columns;
+        
+        // Check
+        if (isEmpty(this.data)) {
+            return;
+        }
+        
+        // Prepare
+        Pair<SUDA2ItemRegistry, Pair<Integer, Integer>> state = getInitialState();
+        SUDA2ItemRegistry list = state.first;
+        int numUniqueRecords = state.second.first;
+        int numDuplicateRecords = state.second.second;
+        
+        // Execute
+        this.result = result;
+        this.result.init(this.columns, maxKeyLength, numUniqueRecords, numDuplicateRecords);
+        this.result.setOrder(this.order);
+        this.rangeFrom = from;
+        this.rangeTo = to;
+        try {
+            this.suda2(maxKeyLength, list, data.length, constraints == null ? null : constraints.getRootContext());
+        } finally {
+            this.rangeFrom = 0;
+            this.rangeTo = Integer.MAX_VALUE;
+        }
+    }
+
+    /**
+     * Sets whether the initial state is retained between executions
+     * @param retain
+     */
+    void setRetainInitialState(boolean retain) {
+        this.retainState = retain;
+        this.state = retain ? this.state : null;
+    }
+
+    /**
+     * Check argument
+     * @param data
+     */
+    private void check(int[][] data) {
+        if (data == null || (data.length > 0 && data[0] == null)) {
+            throw new NullPointerException("Data must not be null");
+        }
+    }
+
+    /**
+     * Replaces the rows of all items with compressed rows, if this saves space
+     * @param registry
+     */
+    private void compress(SUDA2ItemRegistry registry) {
+        for (int i = 0; i < registry.values.length; i++) {
+            SUDA2Item item = registry.values[i];
+            if (item != null && !(item.getRows() instanceof SUDA2IntSetCompressed)) {
+                SUDA2IntSet rows = new SUDA2IntSetCompressed(item.getRows());
+                if (rows.getMemory() < item.getRows().getMemory()) {
+                    registry.values[i] = item.getInstance(rows);
+                }
+            }
+        }
+    }
+
+    /**
+     * Executes the tasks
+     * @param executor
+     * @param tasks
+     */
+    private void execute(ExecutorService executor, List<Callable<Void>> tasks) {
+        try {
+            for (Future<Void> future : executor.invokeAll(tasks)) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SUDA2Exception("Interrupted", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new SUDA2Exception("Error building initial state", e.getCause());
+        }
+    }
+
+    /**
+     * Returns a fingerprint of the data
+     * @param data
+     * @return
+     */
+    static long getFingerprint(int[][] data) {
+        long hash = 0xcbf29ce484222325L;
+        hash = (hash ^ data.length) * 0x100000001b3L;
+        for (int[] row : data) {
+            for (int value : row) {
+                hash = (hash ^ value) * 0x100000001b3L;
+            }
+        }
+        return hash;
+    }
+
+    /**
+     * Returns a fingerprint of the data and the configuration of an execution
+     * @param maxK
+     * @return
+     */
+    private long getFingerprint(int maxK) {
+        long hash = getFingerprint(input);
+        long[] values = { columns, maxK, collapseDuplicates ? 1 : 0, mergeCorrelatedItems ? 1 : 0,
+                          mergeCorrelatedItemsOnAllLevels ? 1 : 0, constraints == null ? 0 : 1,
+                          constraints == null ? 0 : constraints.getFingerprint(), itemOrder.ordinal(), threads,
+                          rangeFrom, rangeTo, reorderRows ? 1 : 0, result.getClass().getName().hashCode() };
+        for (long value : values) {
+            hash = (hash ^ value) * 0x100000001b3L;
+        }
+        return hash;
+    }
+
+    /**
+     * Returns all variants of the given item, in which the item is replaced by one of the items
+     * it is perfectly correlated with
+     * @param item
+     * @param correlated
+     * @return
+     */
+    private List<SUDA2Item> getExpansions(SUDA2Item item, Map<Long, List<SUDA2Item>> correlated) {
+        List<SUDA2Item> result = new ArrayList<>();
+        result.add(item);
+        List<SUDA2Item> items = correlated.get(item.getId());
+        if (items != null) {
+            result.addAll(items);
+        }
+        return result;
+    }
+
+    /**
+     * Returns all variants of the given item sets, in which representatives are replaced
+     * by the items they are perfectly correlated with
+     * @param sets
+     * @param correlated
+     * @return
+     */
+    private List<SUDA2ItemSet> getExpansions(List<SUDA2ItemSet> sets, Map<Long, List<SUDA2Item>> correlated) {
+        if (correlated == null) {
+            return sets;
+        }
+        List<SUDA2ItemSet> result = new ArrayList<>();
+        for (SUDA2ItemSet set : sets) {
+            result.addAll(getExpansions(set, correlated));
+        }
+        return result;
+    }
+
+    /**
+     * Returns all variants of the given item set, in which representatives are replaced
+     * by the items they are perfectly correlated with
+     * @param set
+     * @param correlated
+     * @return
+     */
+    private List<SUDA2ItemSet> getExpansions(SUDA2ItemSet set, Map<Long, List<SUDA2Item>> correlated) {
+        
+        // Prepare
+        List<SUDA2ItemSet> result = new ArrayList<>();
+        result.add(set);
+        
+        // Check
+        int size = set.size();
+        boolean expand = false;
+        for (int i = 0; i < size && !expand; i++) {
+            expand = correlated.containsKey(set.get(i).getId());
+        }
+        if (!expand) {
+            return result;
+        }
+        
+        // Expand in the order in which the items have been added
+        result.clear();
+        for (SUDA2Item item : getExpansions(set.get(size - 1), correlated)) {
+            result.add(new SUDA2ItemSet(item));
+        }
+        for (int i = size - 2; i >= 0; i--) {
+            List<SUDA2Item> items = getExpansions(set.get(i), correlated);
+            List<SUDA2ItemSet> expanded = new ArrayList<>();
+            for (SUDA2ItemSet _set : result) {
+                for (SUDA2Item item : items) {
+                    SUDA2ItemSet _expanded = new SUDA2ItemSet(_set.get(_set.size() - 1));
+                    for (int j = _set.size() - 2; j >= 0; j--) {
+                        _expanded.add(_set.get(j));
+                    }
+                    _expanded.add(item);
+                    expanded.add(_expanded);
+                }
+            }
+            result = expanded;
+        }
+        return result;
+    }
+
+    /**
+     * Returns a comparator for items with equal support implementing the current policy
+     * @param registry Items of the original table
+     * @return
+     */
+    private Comparator<SUDA2Item> getTies(SUDA2ItemRegistry registry) {
+
+        // Compare ids
+        final Comparator<SUDA2Item> ids = new Comparator<SUDA2Item>() {
+            @Override
+            public int compare(SUDA2Item o1, SUDA2Item o2) {
+                return Long.compare(o1.getId(), o2.getId());
+            }
+        };
+        if (itemOrder == SUDA2ItemOrder.REGISTRATION) {
+            return null;
+        } else if (itemOrder == SUDA2ItemOrder.ITEM_ID) {
+            return ids;
+        }
+
+        // Compute number of distinct values or entropy per column
+        final double[] weights = new double[columns];
+        double[] supports = new double[columns];
+        for (SUDA2Item item : registry.values) {
+            if (item != null) {
+                supports[item.getColumn()] += item.getSupport();
+            }
+        }
+        for (SUDA2Item item : registry.values) {
+            if (item != null) {
+                double p = item.getSupport() / supports[item.getColumn()];
+                weights[item.getColumn()] += itemOrder == SUDA2ItemOrder.COLUMN_CARDINALITY ? 1d : -p * Math.log(p);
+            }
+        }
+
+        // Compare columns, then ids
+        return new Comparator<SUDA2Item>() {
+            @Override
+            public int compare(SUDA2Item o1, SUDA2Item o2) {
+                int result = Double.compare(weights[o1.getColumn()], weights[o2.getColumn()]);
+                return result != 0 ? result : ids.compare(o1, o2);
+            }
+        };
+    }
+
+    /**
+     * Returns the initial state needed for executing the algorithm
+     * @return
+     */
+    private Pair<SUDA2ItemRegistry, Pair<Integer, Integer>> getInitialState() {
+
+        // Reuse
+        if (this.state != null) {
+            return this.state;
+        }
+
+        // Cached projections refer to the previous state
+        if (cache != null) {
+            cache.clear();
+        }
+        
+        // Reorder
+        if (reorderRows && order == null) {
+            this.reorder();
+        }
+
+        // Build in parallel
+        if (threads > 1 && data.length >= threads * MIN_ROWS_PER_THREAD) {
+            return getInitialStateParallel();
+        }
+
+        // Collect all items and their support rows
+        SUDA2ItemRegistry registry = new SUDA2ItemRegistryDense(data, columns);
+        SUDA2Groupify groupify = primitiveGroupify ? null : new SUDA2Groupify(data.length);
+        SUDA2GroupifyPrimitive primitive = primitiveGroupify ? new SUDA2GroupifyPrimitive(data, data.length) : null;
+        for (int row = 0; row < data.length; row++) {
+            int index = row + 1; // Value 0 is reserved for empty entries in SUDA2IntSet
+            boolean register;
+            if (primitive != null) {
+                register = collapseDuplicates ? primitive.getRepresentative(row) == row : !primitive.canBeIgnored(row);
+            } else {
+                register = collapseDuplicates ? groupify.getRepresentative(data[row], index) == index : 
+                                                !groupify.canBeIgnored(data[row]);
+            }
+            if (register) {
+                for (int column = 0; column < columns; column++) {
+                    int value = data[row][column];
+                    SUDA2Item item = registry.register(column, value);
+                    item.addRow(index);
+                }
+            }
+        }
+        
+        // Weight rows by the sizes of the classes which they represent
+        if (collapseDuplicates) {
+            SUDA2IntSet duplicates = primitive != null ? primitive.getDuplicateRepresentatives() : 
+                                                         groupify.getDuplicateRepresentatives();
+            if (duplicates.size() != 0) {
+                for (SUDA2Item item : registry.values) {
+                    if (item != null) {
+                        item.setDuplicates(duplicates);
+                    }
+                }
+            }
+        }
+        // Compress rows
+        if (compressRows) {
+            compress(registry);
+        }
+        int numUniqueRecords = primitive != null ? primitive.getNumUniqueRecords() : groupify.getNumUniqueRecords();
+        int numDuplicateRecords = primitive != null ? primitive.getNumDuplicateRecords() : groupify.getNumDuplicateRecords();
+        Pair<SUDA2ItemRegistry, Pair<Integer, Integer>> result = new Pair<>(registry, new Pair<>(numUniqueRecords, numDuplicateRecords));
+        
+        // Retain for repeated executions
+        if (this.retainState || this.cache != null) {
+            this.state = result;
+        }
+        return result;
+    }
+
+    /**
+     * Returns the initial state needed for executing the algorithm, built with multiple threads
+     * @return
+     */
+    private Pair<SUDA2ItemRegistry, Pair<Integer, Integer>> getInitialStateParallel() {
+        
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            
+            // Fingerprint or hash records in chunks of rows
+            final long[] fingerprints = new long[data.length];
+            List<Callable<Void>> tasks = new ArrayList<>();
+            for (int thread = 0; thread < threads; thread++) {
+                final int from = (int) ((long) data.length * thread / threads);
+                final int to = (int) ((long) data.length * (thread + 1) / threads);
+                tasks.add(new Callable<Void>() {
+                    @Override
+                    public Void call() throws Exception {
+                        for (int row = from; row < to; row++) {
+                            fingerprints[row] = primitiveGroupify ? SUDA2GroupifyPrimitive.getFingerprint(data[row], null) :
+                                                                    SUDA2Groupify.hashcode(data[row]);
+                        }
+                        return null;
+                    }
+                });
+            }
+            execute(executor, tasks);
+            
+            // Group records in partitions of fingerprints or hash codes, which preserves the order of rows within classes
+            final boolean[] register = new boolean[data.length];
+            final SUDA2Groupify[] groupifies = new SUDA2Groupify[threads];
+            final SUDA2GroupifyPrimitive[] primitives = new SUDA2GroupifyPrimitive[threads];
+            tasks.clear();
+            for (int thread = 0; thread < threads; thread++) {
+                final int partition = thread;
+                tasks.add(new Callable<Void>() {
+                    @Override
+                    public Void call() throws Exception {
+                        SUDA2Groupify groupify = primitiveGroupify ? null : new SUDA2Groupify(data.length / threads);
+                        SUDA2GroupifyPrimitive primitive = primitiveGroupify ? new SUDA2GroupifyPrimitive(data, data.length / threads) : null;
+                        for (int row = 0; row < data.length; row++) {
+                            long fingerprint = fingerprints[row];
+                            if (primitive != null && (int) ((fingerprint >>> 32) * threads >>> 32) == partition) {
+                                register[row] = collapseDuplicates ? primitive.getRepresentative(row, fingerprint) == row :
+                                                                     !primitive.canBeIgnored(row, fingerprint);
+                            } else if (primitive == null && (int) (((fingerprint * 0x9E3779B9L) & 0xFFFFFFFFL) * threads >>> 32) == partition) {
+                                int hash = (int) fingerprint;
+                                int index = row + 1; // Value 0 is reserved for empty entries in SUDA2IntSet
+                                register[row] = collapseDuplicates ? groupify.getRepresentative(data[row], hash, index) == index :
+                                                                     !groupify.canBeIgnored(data[row], hash);
+                            }
+                        }
+                        groupifies[partition] = groupify;
+                        primitives[partition] = primitive;
+                        return null;
+                    }
+                });
+            }
+            execute(executor, tasks);
+            
+            // Register items in partitions of columns, which preserves the order of rows within items
+            final SUDA2ItemRegistryDense registry = new SUDA2ItemRegistryDense(data, columns);
+            final SUDA2ItemRegistry[] registries = new SUDA2ItemRegistry[threads];
+            tasks.clear();
+            for (int thread = 0; thread < threads; thread++) {
+                final int partition = thread;
+                tasks.add(new Callable<Void>() {
+                    @Override
+                    public Void call() throws Exception {
+                        SUDA2ItemRegistry _registry = new SUDA2ItemRegistryDense(registry);
+                        for (int column = partition; column < columns; column += threads) {
+                            for (int row = 0; row < data.length; row++) {
+                                if (register[row]) {
+                                    _registry.register(column, data[row][column]).addRow(row + 1);
+                                }
+                            }
+                        }
+                        registries[partition] = _registry;
+                        return null;
+                    }
+                });
+            }
+            execute(executor, tasks);
+            
+            // Merge
+            for (SUDA2ItemRegistry _registry : registries) {
+                for (SUDA2Item item : _registry.values) {
+                    if (item != null) {
+                        registry.add(item);
+                    }
+                }
+            }
+            int numUniqueRecords = 0;
+            int numDuplicateRecords = 0;
+            for (int thread = 0; thread < threads; thread++) {
+                numUniqueRecords += primitiveGroupify ? primitives[thread].getNumUniqueRecords() : groupifies[thread].getNumUniqueRecords();
+                numDuplicateRecords += primitiveGroupify ? primitives[thread].getNumDuplicateRecords() : groupifies[thread].getNumDuplicateRecords();
+            }
+            
+            // Weight rows by the sizes of the classes which they represent
+            if (collapseDuplicates) {
+                SUDA2IntSet duplicates = new SUDA2IntSetBits(1, data.length);
+                for (int thread = 0; thread < threads; thread++) {
+                    SUDA2IntSet representatives = primitiveGroupify ? primitives[thread].getDuplicateRepresentatives() :
+                                                                      groupifies[thread].getDuplicateRepresentatives();
+                    for (int row : representatives.toArray()) {
+                        duplicates.add(row);
+                    }
+                }
+                if (duplicates.size() != 0) {
+                    for (SUDA2Item item : registry.values) {
+                        if (item != null) {
+                            item.setDuplicates(duplicates);
+                        }
+                    }
+                }
+            }
+            // Compress rows
+            if (compressRows) {
+                compress(registry);
+            }
+            Pair<SUDA2ItemRegistry, Pair<Integer, Integer>> result = new Pair<>(registry, new Pair<>(numUniqueRecords, numDuplicateRecords));
+            
+            // Retain for repeated executions
+            if (this.retainState || this.cache != null) {
+                this.state = result;
+            }
+            return result;
+            
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    /**
+     * Returns all items for the given reference item from the given list, starting at fromIndex (included)
+     * This means that all 1-MSUs can be removed beforehand.
+     * @param itemList
+     * @param reference
+     * @param fromIndex 
+     * @param context Column constraints, may be null
+     * @return
+     */
+    private SUDA2ItemRegistry getItems(List<SUDA2Item> itemList, SUDA2Item reference, int fromIndex, Context context) {
+
+        // Only projections onto reference items of the initial state can be reused
+        SUDA2ProjectionCache cache = depth == 0 ? this.cache : null;
+
+        // Items following the reference item have at least its support, which means that a vertical
+        // projection probes all rows of the reference item for each item, while a horizontal
+        // projection scans all cells in the rows of the reference item once
+        if (dense != null && cache == null) {
+            long vertical = (long) (itemList.size() - fromIndex) * reference.getRows().size();
+            long horizontal = (long) reference.getRows().size() * columns + (itemList.size() - fromIndex);
+            if (horizontal < vertical) {
+                return getItemsHorizontal(itemList, reference, fromIndex, context);
+            }
+        }
+
+        // For all items within the given range
+        SUDA2ItemRegistry items = new SUDA2ItemRegistry();
+        List<SUDA2Item> list = itemList;
+        SUDA2IntSet referenceRows = reference.getRows();
+        boolean diffsets = cache == null && diffsetDepth > 0 && depth + 1 >= diffsetDepth;
+        int[] referenceElements = diffsets ? referenceRows.toArray() : null;
+        for (int index = fromIndex; index < list.size(); index++) {
+            
+            // Check constraints
+            if (context != null && !context.isAllowed(list.get(index).getColumn())) {
+                continue;
+            }
+            
+            // Extract item of interest
+            SUDA2Item item = diffsets ? getProjectionDiffset(list.get(index), referenceRows, referenceElements) :
+                             cache != null ? cache.getProjection(list.get(index), referenceRows) :
+                                             list.get(index).getProjection(referenceRows);
+                        
+            // If it is contained, add it
+            if (item != null) {
+                items.add(item);
+            }
+        }
+        
+        // Return all items
+        return items;
+    }
+
+    /**
+     * Returns the item projected onto the given rows, which are represented by the rows lacking
+     * from them if this is smaller, or null if the item is not contained in any of the rows
+     * @param item
+     * @param referenceRows
+     * @param referenceElements The rows of the reference item as an array
+     * @return
+     */
+    private SUDA2Item getProjectionDiffset(SUDA2Item item, SUDA2IntSet referenceRows, int[] referenceElements) {
+        
+        // At most half of the rows are contained, so that the difference is not smaller
+        if (item.getRows().size() * 2L <= referenceRows.size()) {
+            return item.getProjection(referenceRows);
+        }
+        SUDA2IntSet rows = SUDA2IntSetDiff.getIntersection(referenceRows, referenceElements, item.getRows());
+        return rows == null ? null : item.getInstance(rows);
+    }
+
+    /**
+     * Returns all items which remain after projecting the items in the given range
+     * onto the rows of the reference item, by scanning these rows in the data
+     * @param itemList
+     * @param reference
+     * @param fromIndex
+     * @param context Column constraints, may be null
+     * @return
+     */
+    private SUDA2ItemRegistry getItemsHorizontal(List<SUDA2Item> itemList, SUDA2Item reference, int fromIndex, Context context) {
+
+        // Prepare
+        if (stamps == null || stamps.length != dense.values.length) {
+            stamps = new int[dense.values.length];
+            candidates = new int[dense.values.length];
+            stamp = 0;
+        }
+        if (++stamp == 0) {
+            Arrays.fill(stamps, 0);
+            stamp = 1;
+        }
+
+        // Mark candidates
+        int count = itemList.size() - fromIndex;
+        for (int index = fromIndex; index < itemList.size(); index++) {
+            SUDA2Item item = itemList.get(index);
+            if (context == null || context.isAllowed(item.getColumn())) {
+                int id = (int) item.getId();
+                stamps[id] = stamp;
+                candidates[id] = index - fromIndex;
+            }
+        }
+
+        // Count rows of candidates
+        int[] rows = reference.getRows().toArray();
+        int[] sizes = new int[count];
+        int[] minimums = new int[count];
+        int[] maximums = new int[count];
+        for (int row : rows) {
+            int[] record = data[row - 1];
+            for (int column = 0; column < columns; column++) {
+                int id = dense.getIndex(column, record[column]);
+                if (stamps[id] == stamp) {
+                    int candidate = candidates[id];
+                    if (sizes[candidate]++ == 0) {
+                        minimums[candidate] = row;
+                        maximums[candidate] = row;
+                    } else {
+                        minimums[candidate] = Math.min(minimums[candidate], row);
+                        maximums[candidate] = Math.max(maximums[candidate], row);
+                    }
+                }
+            }
+        }
+
+        // Collect rows of candidates
+        SUDA2IntSet[] sets = new SUDA2IntSet[count];
+        for (int candidate = 0; candidate < count; candidate++) {
+            if (sizes[candidate] != 0) {
+                sets[candidate] = SUDA2IntSet.getInstance(sizes[candidate], minimums[candidate], maximums[candidate]);
+            }
+        }
+        for (int row : rows) {
+            int[] record = data[row - 1];
+            for (int column = 0; column < columns; column++) {
+                int id = dense.getIndex(column, record[column]);
+                if (stamps[id] == stamp) {
+                    sets[candidates[id]].add(row);
+                }
+            }
+        }
+
+        // Add items in the order of the list
+        SUDA2ItemRegistry items = new SUDA2ItemRegistry();
+        for (int candidate = 0; candidate < count; candidate++) {
+            if (sets[candidate] != null) {
+                items.add(itemList.get(fromIndex + candidate).getInstance(sets[candidate]));
+            }
+        }
+        return items;
+    }
+
+    /**
+     * Clears the list and returns all MSUs
+     * @param list
+     * @param numRecords
+     * @return
+     */
+    private Pair<List<SUDA2ItemSet>, List<SUDA2Item>> getMSUs(List<SUDA2Item> list, int numRecords) {
+        
+        // Prepare
+        List<SUDA2ItemSet> msus = new ArrayList<>();
+        
+        // Check the items
+        List<SUDA2Item> result = new ArrayList<SUDA2Item>();
+        for (SUDA2Item item : list) {
+
+            // All unique items are already MSUs
+            if (item.getSupport() == 1) {
+                msus.add(new SUDA2ItemSet(item));
+
+            // All items appearing in all rows can be ignored
+            } else if (item.getSupport() != numRecords) {
+                result.add(item);
+            }
+        }
+
+        // Return
+        return new Pair<List<SUDA2ItemSet>, List<SUDA2Item>>(msus, result);
+    }
+
+    /**
+     * Returns all 1-MSUS for the given reference item from the given list, starting at fromIndex (included)
+     * 
+     * @param itemList
+     * @param reference
+     * @param fromIndex 
+     * @param context Column constraints, may be null
+     * @return
+     */
+    private List<SUDA2ItemSet> getMSUs(List<SUDA2Item> itemList, SUDA2Item reference, int fromIndex, Context context) {
+
+        // Only results for reference items of the initial state can be reused
+        SUDA2ProjectionCache cache = depth == 0 ? this.cache : null;
+
+        // For all items within the given range
+        List<SUDA2ItemSet> result = new ArrayList<>();
+        List<SUDA2Item> list = itemList;
+        SUDA2IntSet referenceRows = reference.getRows();
+        for (int index = fromIndex; index < list.size(); index++) {
+            if (context != null && !context.isAllowed(list.get(index).getColumn())) {
+                continue;
+            }
+            SUDA2Item item = cache != null ? cache.get1MSU(list.get(index), referenceRows) :
+                                             list.get(index).get1MSU(referenceRows);
+            if (item != null) {
+                // TODO: Get rid of itemset
+                result.add(new SUDA2ItemSet(item));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Removes all perfectly correlated items from the list, except for one representative.
+     * The representatives are mapped to the items which have been removed.
+     * @param list Sorted by support
+     * @param correlated
+     * @return
+     */
+    private List<SUDA2Item> getRepresentatives(List<SUDA2Item> list, Map<Long, List<SUDA2Item>> correlated) {
+        
+        // Prepare
+        List<SUDA2Item> result = new ArrayList<>();
+        Map<Long, List<SUDA2Item>> candidates = new HashMap<>();
+        int support = -1;
+        
+        // Items with identical rows have identical supports, also if weighted, and are thus adjacent
+        for (SUDA2Item item : list) {
+            SUDA2IntSet rows = item.getRows();
+            if (item.getSupport() != support) {
+                support = item.getSupport();
+                candidates.clear();
+            }
+            
+            // Search for representative with identical rows
+            Long key = ((long) rows.min()) << 32 | ((long) rows.max()) & 0xFFFFFFFFL;
+            List<SUDA2Item> representatives = candidates.get(key);
+            SUDA2Item representative = null;
+            if (representatives == null) {
+                representatives = new ArrayList<>();
+                candidates.put(key, representatives);
+            } else {
+                for (SUDA2Item _representative : representatives) {
+                    SUDA2IntSet _rows = _representative.getRows();
+                    if (_rows.size() == rows.size() && _rows.intersectionSize(rows) == rows.size()) {
+                        representative = _representative;
+                        break;
+                    }
+                }
+            }
+            
+            // Register
+            if (representative == null) {
+                representatives.add(item);
+                result.add(item);
+            } else {
+                List<SUDA2Item> items = correlated.get(representative.getId());
+                if (items == null) {
+                    items = new ArrayList<>();
+                    correlated.put(representative.getId(), items);
+                }
+                items.add(item);
+            }
+        }
+        
+        // Return
+        return result;
+    }
+
+    /**
+     * Check data
+     * @param data
+     * @return
+     */
+    private boolean isEmpty(int[][] data) {
+        return data.length == 0 || data[0].length == 0;
+    }
+
+    /**
+     * Implements both checks for MSUs described in the paper
+     * @param currentList
+     * @param registry
+     * @param candidate
+     * @param referenceItem
+     * @return
+     */
+
+    private boolean isMSU(final List<SUDA2Item> currentList,
+                          final SUDA2ItemRegistry registry,
+                          SUDA2ItemSet candidate,
+                          SUDA2Item referenceItem) {
+
+        // All of the k-1 items in the candidate set must have rank > reference rank
+        // We don't need to check this, because we have only used items with higher
+        // ranks when performing the recursive call, anyways.
+        
+        // We don't need to search for the special row for candidate item sets of size 1
+        if (candidate.size() <= 1) {
+            return true;
+        }
+         
+        // Search for the special row
+        // This is one of the hottest functions in SUDA2
+        // (1) It seems to be more likely that the special row is found than that
+        //     the special row is not found -> We optimize for this path
+        // (2) It is more likely that not all of the candidate items are contained
+        //     than that the reference item is contained
+        
+        // Find item with smallest support 
+        SUDA2IntSet rows = null;
+        SUDA2Item pivot = null;
+        int candidateSize = candidate.size();
+        for (int i = 0; i < candidateSize; i++) {
+            SUDA2Item item = candidate.get(i);
+            SUDA2IntSet _rows = registry.get(item.getId()).getRows();
+            if (rows == null || _rows.size() < rows.size()) {
                 rows = _rows;
                 pivot = item;
             }
@@ -395,6 +1502,13 @@ public class SUDA2 {
                 items[index++] = item;
             }
         }
+        
+        // Search on packed rows, where all items are compared at once
+        if (packed != null) {
+            return rows.containsSpecialRow(packed, packed.getPattern(items, referenceItem));
+        }
+        
+        // Check items with low support first
         Arrays.sort(items, new Comparator<SUDA2Item>() {
             @Override
             public int compare(SUDA2Item o1, SUDA2Item o2) {
@@ -409,35 +1523,268 @@ public class SUDA2 {
         return rows.containsSpecialRow(items, referenceItem, data);
     }
 
+    /**
+     * Registers an MSU with the result, expanding perfectly correlated items
+     * @param msu
+     * @param correlated
+     */
+    private void registerKey(SUDA2ItemSet msu, Map<Long, List<SUDA2Item>> correlated) {
+        if (keyLength > 0 && msu.size() != keyLength) {
+            return;
+        }
+        if (correlated == null) {
+            result.registerKey(msu);
+        } else {
+            for (SUDA2ItemSet set : getExpansions(msu, correlated)) {
+                result.registerKey(set);
+            }
+        }
+    }
+
+    /**
+     * Registers an MSU with the result, expanding perfectly correlated items
+     * @param referenceItem
+     * @param candidate
+     * @param correlated
+     */
+    private void registerKey(SUDA2Item referenceItem, SUDA2ItemSet candidate, Map<Long, List<SUDA2Item>> correlated) {
+        if (keyLength > 0 && candidate.size() + 1 != keyLength) {
+            return;
+        }
+        if (correlated == null) {
+            result.registerKey(referenceItem, candidate);
+        } else {
+            for (SUDA2ItemSet set : getExpansions(candidate, correlated)) {
+                for (SUDA2Item item : getExpansions(referenceItem, correlated)) {
+                    result.registerKey(item, set);
+                }
+            }
+        }
+    }
+
+    /**
+     * Sorts the rows lexicographically by the ids of their values with a stable radix sort,
+     * considering columns with fewer distinct values first. Identical records retain their order.
+     */
+    private void reorder() {
+
+        // Order columns by number of distinct values
+        SUDA2ItemRegistryDense registry = new SUDA2ItemRegistryDense(input, columns);
+        Integer[] significance = new Integer[columns];
+        for (int column = 0; column < columns; column++) {
+            significance[column] = column;
+        }
+        Arrays.sort(significance, new Comparator<Integer>() {
+            @Override
+            public int compare(Integer column1, Integer column2) {
+                return Integer.compare(registry.getNumValues(column1), registry.getNumValues(column2));
+            }
+        });
+
+        // Sort by one column at a time, starting with the least significant column
+        int[] order = new int[input.length];
+        int[] buffer = new int[input.length];
+        for (int row = 0; row < order.length; row++) {
+            order[row] = row;
+        }
+        for (int i = columns - 1; i >= 0; i--) {
+            int column = significance[i];
+            int[] offsets = new int[registry.getNumValues(column) + 1];
+            for (int row : order) {
+                offsets[registry.getValueId(column, input[row][column]) + 1]++;
+            }
+            for (int id = 1; id < offsets.length; id++) {
+                offsets[id] += offsets[id - 1];
+            }
+            for (int row : order) {
+                buffer[offsets[registry.getValueId(column, input[row][column])]++] = row;
+            }
+            int[] temp = order;
+            order = buffer;
+            buffer = temp;
+        }
+
+        // Store
+        int[][] data = new int[input.length][];
+        for (int row = 0; row < data.length; row++) {
+            data[row] = input[order[row]];
+        }
+        this.data = data;
+        this.order = order;
+    }
+
+    /**
+     * Replaces items of the given sets, whose rows are read from the spill file, also if they
+     * are based on such rows, with items whose rows are held in memory
+     * @param sets
+     */
+    private void restore(List<SUDA2ItemSet> sets) {
+        Map<SUDA2Item, SUDA2Item> items = new IdentityHashMap<>();
+        Map<SUDA2IntSet, SUDA2IntSet> copies = new IdentityHashMap<>();
+        for (SUDA2ItemSet set : sets) {
+            for (int i = 0; i < set.size(); i++) {
+                SUDA2Item item = set.get(i);
+                SUDA2Item restored = items.get(item);
+                if (restored == null) {
+                    SUDA2IntSet rows = item.getRows().materialize(copies);
+                    restored = rows == item.getRows() ? item : item.getInstance(rows);
+                    items.put(item, restored);
+                }
+                set.set(i, restored);
+            }
+        }
+    }
+
+    /**
+     * Replaces the rows of all items of the given registry and list with rows mapped from the
+     * spill file and returns the estimated number of bytes released from the heap
+     * @param registry
+     * @param list
+     * @return
+     */
+    private long spill(SUDA2ItemRegistry registry, List<SUDA2Item> list) {
+
+        // Collect
+        List<Integer> indices = new ArrayList<>();
+        for (int i = 0; i < registry.values.length; i++) {
+            if (registry.values[i] != null) {
+                indices.add(i);
+            }
+        }
+        SUDA2IntSet[] rows = new SUDA2IntSet[indices.size()];
+        for (int i = 0; i < rows.length; i++) {
+            rows[i] = registry.values[indices.get(i)].getRows();
+        }
+
+        // Write
+        SUDA2IntSet[] mapped = spill.write(rows);
+        if (mapped == null) {
+            return 0L;
+        }
+        long bytes = memoryBudget == Long.MAX_VALUE ? 0L : registry.getMemory();
+
+        // Replace
+        Map<Long, SUDA2Item> items = new HashMap<>();
+        for (int i = 0; i < mapped.length; i++) {
+            SUDA2Item item = registry.values[indices.get(i)].getInstance(mapped[i]);
+            registry.values[indices.get(i)] = item;
+            items.put(item.getId(), item);
+        }
+        for (int i = 0; i < list.size(); i++) {
+            SUDA2Item item = items.get(list.get(i).getId());
+            if (item != null) {
+                list.set(i, item);
+            }
+        }
+        
+        // Release
+        if (memoryBudget == Long.MAX_VALUE) {
+            return 0L;
+        }
+        bytes -= registry.getMemory();
+        memory -= bytes;
+        return bytes;
+    }
+
+    /**
+     * Adds the estimated size of the given registry to the memory held by the current recursion
+     * and returns it. Compresses the rows of the items or fails, if the budget would be exceeded.
+     * @param registry
+     * @return
+     */
+    private long track(SUDA2ItemRegistry registry) {
+
+        // Not limited
+        if (memoryBudget == Long.MAX_VALUE) {
+            return 0L;
+        }
+
+        // Compress, if needed
+        long bytes = registry.getMemory();
+        if (memory + bytes > memoryBudget) {
+            compress(registry);
+            bytes = registry.getMemory();
+        }
+
+        // Fail, if still needed
+        if (memory + bytes > memoryBudget) {
+            throw new SUDA2Exception("Memory budget of " + memoryBudget + " bytes exceeded: " +
+                                     (memory + bytes) + " bytes are needed at depth " + depth);
+        }
+        memory += bytes;
+        return bytes;
+    }
+
     /**
      * SUDA2
      * @param maxK
      * @param currentList
      * @param numRecords
+     * @param context Column constraints, may be null
      * @return
      */
     private List<SUDA2ItemSet> suda2(int maxK,
                                      SUDA2ItemRegistry registry,
-                                     int numRecords) {
+                                     int numRecords,
+                                     Context context) {
         
         // Tick
         if (progressListener != null) {
             progressListener.tick();
         }
 
+        // Order items with equal support as in the original table
+        if (numRecords == data.length) {
+            ties = getTies(registry);
+            memory = 0;
+            track(registry);
+        }
+
+        // Apply column constraints to the original table
+        List<SUDA2Item> currentList = registry.getSortedItemList(ties);
+        if (context != null && numRecords == data.length) {
+            List<SUDA2Item> allowed = new ArrayList<>();
+            for (SUDA2Item item : currentList) {
+                if (context.isAllowed(item.getColumn())) {
+                    allowed.add(item);
+                }
+            }
+            currentList = allowed;
+            maxK = Math.min(maxK, context.getMaxSize());
+        }
+
+        // Merge perfectly correlated items
+        Map<Long, List<SUDA2Item>> correlated = null;
+        if (context == null && (mergeCorrelatedItemsOnAllLevels || (mergeCorrelatedItems && numRecords == data.length))) {
+            correlated = new HashMap<>();
+            currentList = getRepresentatives(currentList, correlated);
+            if (correlated.isEmpty()) {
+                correlated = null;
+            }
+        }
+
         // Find MSUs and clear list
-        List<SUDA2Item> currentList = registry.getSortedItemList();
         Pair<List<SUDA2ItemSet>, List<SUDA2Item>> msusAndList = getMSUs(currentList, numRecords);
         List<SUDA2ItemSet> msus = msusAndList.first;
         currentList = msusAndList.second;
         
         // When processing the original table
         if (numRecords == data.length) {
+
+            // Horizontal projections require dense ids
+            dense = registry instanceof SUDA2ItemRegistryDense ? (SUDA2ItemRegistryDense) registry : null;
+            depth = 0;
             
-            // Register 1-MSUs for the original table
-            for (SUDA2ItemSet msu : msus) {
-                result.registerKey(msu);
+            // Packing rows requires dense ids as well
+            packed = packedRows && dense != null ? SUDA2PackedRows.create(data, columns, dense) : null;
+            
+            // Register 1-MSUs for the original table, unless resumed or processing a later range
+            if (resumed < 0 && rangeFrom == 0) {
+                for (SUDA2ItemSet msu : msus) {
+                    registerKey(msu, correlated);
+                }
             }
+            processed = Math.max(resumed, 0);
         } 
         
         if (stop) {
@@ -446,56 +1793,193 @@ public class SUDA2 {
 
         // Check for maxK
         if (maxK <= 1) {
-            return msus;
+            return getExpansions(msus, correlated);
+        }
+
+        // Build prefix tree for the original table
+        SUDA2PrefixTree tree = null;
+        if (prefixTree && numRecords == data.length) {
+            tree = new SUDA2PrefixTree(currentList);
+        }
+
+        // Create spill file for the original table
+        if (numRecords == data.length && spillLevels > 0) {
+            spill = new SUDA2Spill(spillDirectory);
         }
 
         // For each item i
         int index = 0;
         int total = currentList.size();
-        for (SUDA2Item referenceItem : currentList) {
+        boolean spilled = false;
+        long released = 0L;
+        long mark = 0L;
+        try {
+            for (SUDA2Item referenceItem : currentList) {
             
-            // Track
-            index++;
+                // Track
+                index++;
             
-            // Progress information
-            if (numRecords == data.length && progressListener != null) {
-                progressListener.update((double)index / (double)total);
-            }
-
-            // Recursive call
-            int upperLimit = maxK - 1; // Pruning strategy 3
-            upperLimit = Math.min(upperLimit, currentList.size() - index); // Pruning strategy 2
-            upperLimit = Math.min(upperLimit, referenceItem.getSupport() - 1); // Pruning strategy 1
+                // Skip reference items processed before resuming or outside of the range
+                if (numRecords == data.length && (index <= resumed || index <= rangeFrom || index > rangeTo)) {
+                    continue;
+                }
             
-            // We only perform recursion for maxK > 1
-            List<SUDA2ItemSet> msus_i;
-            if (upperLimit > 1) {
-                msus_i = suda2(upperLimit,
-                               getItems(currentList, referenceItem, index),
-                               referenceItem.getRows().size());
-            } else {
-                msus_i = getMSUs(currentList, referenceItem, index);
-            }
+                // Check budget
+                if (budgeted && System.nanoTime() - deadline > 0) {
+                    throw new BudgetExceededException();
+                }
+            
+                // Progress information
+                if (numRecords == data.length && progressListener != null) {
+                    progressListener.update((double)index / (double)total);
+                }
 
-            // For each candidate
-            outer: for (SUDA2ItemSet candidate : msus_i) {
+                // Column constraints for the recursion
+                Context _context = context == null ? null : constraints.getContext(context, referenceItem.getColumn());
+
+                // Recursive call
+                int upperLimit = maxK - 1; // Pruning strategy 3
+                upperLimit = Math.min(upperLimit, currentList.size() - index); // Pruning strategy 2
+                upperLimit = Math.min(upperLimit, referenceItem.getSupport() - 1); // Pruning strategy 1
+                if (_context != null) {
+                    upperLimit = Math.min(upperLimit, _context.getMaxSize()); // Column constraints
+                }
+            
+                // We only perform recursion for maxK > 1
+                List<SUDA2ItemSet> msus_i;
+                if (upperLimit > 1) {
                 
-                // Check if candidate is an MSU
-                if (!isMSU(currentList, registry, candidate, referenceItem)) {
-                    continue outer;
+                    // Spill this level before descending for the first time
+                    if (!spilled && spill != null && depth > 0 && depth <= spillLevels) {
+                        mark = spill.getPosition();
+                        released = spill(registry, currentList);
+                        spilled = true;
+                    }
+                    SUDA2ItemRegistry items = tree != null ? tree.getItems(index - 1, _context) :
+                                                             getItems(currentList, referenceItem, index, _context);
+                    long bytes = track(items);
+                    depth++;
+                    msus_i = suda2(upperLimit, items, referenceItem.getSupport(), _context);
+                    depth--;
+                    memory -= bytes;
+                } else {
+                    msus_i = getMSUs(currentList, referenceItem, index, _context);
+                }
+
+                // Verify many candidates at once
+                byte[] verified = null;
+                if (bulkVerification && msus_i.size() >= MIN_CANDIDATES_PER_VERIFICATION) {
+                    if (verifier == null) {
+                        verifier = new SUDA2Verifier(data, MIN_CANDIDATES_PER_VERIFICATION);
+                    }
+                    verified = verifier.verify(msus_i, registry, referenceItem);
                 }
 
-                // Add MSU
+                // For each candidate
+                int candidateIndex = 0;
+                outer: for (SUDA2ItemSet candidate : msus_i) {
+                
+                    // Check if candidate is an MSU
+                    byte msu = verified != null ? verified[candidateIndex++] : SUDA2Verifier.UNVERIFIED;
+                    if (msu == SUDA2Verifier.UNVERIFIED ? !isMSU(currentList, registry, candidate, referenceItem) : msu == SUDA2Verifier.NO_SPECIAL) {
+                        continue outer;
+                    }
+
+                    // Add MSU
+                    if (numRecords == data.length) {
+                        registerKey(referenceItem, candidate, correlated);
+                    } else {
+                        candidate.add(referenceItem);
+                        msus.add(candidate);
+                    }
+                }
+            
+                // Checkpoint
                 if (numRecords == data.length) {
-                    result.registerKey(referenceItem, candidate);
-                } else {
-                    candidate.add(referenceItem);
-                    msus.add(candidate);
+                    processed = index;
+                    if (checkpoint != null) {
+                        checkpoint.update(processed, result);
+                    }
                 }
             }
+        } finally {
+            
+            // Release the spill file when done with the original table, also if failed
+            if (numRecords == data.length && spill != null) {
+                spill.close();
+                spill = null;
+            }
+        }
+        
+        // Copy the rows of returned items back from the spill file and release the region
+        if (spilled) {
+            restore(msus);
+            spill.reset(mark);
+            memory += released;
         }
         
         // Return
-        return msus;
+        return getExpansions(msus, correlated);
+    }
+
+    /**
+     * Executes the algorithm on the original table and handles checkpoints
+     * @param maxK
+     * @param registry
+     */
+    private void suda2(int maxK, SUDA2ItemRegistry registry) {
+        
+        // Without checkpoints
+        Context context = constraints == null ? null : constraints.getRootContext();
+        if (checkpointFile == null) {
+            this.suda2(maxK, registry, data.length, context);
+            return;
+        }
+        
+        // Resume and execute
+        this.checkpoint = new SUDA2Checkpoint(checkpointFile, checkpointInterval, getFingerprint(maxK));
+        this.resumed = checkpoint.read(result);
+        this.processed = -1;
+        try {
+            this.suda2(maxK, registry, data.length, context);
+            this.checkpoint.delete();
+        } catch (SUDA2Exception e) {
+            
+            // Keep progress when stopped
+            if (stop && processed >= 0) {
+                this.checkpoint.write(processed, result);
+            }
+            throw e;
+        } finally {
+            this.checkpoint = null;
+            this.resumed = -1;
+            this.processed = -1;
+        }
+    }
+
+    /**
+     * Executes the algorithm for the given maximal key length and distributes the keys
+     * to the given results for all smaller maximal key lengths
+     * @param maxKeyLength
+     * @param results
+     */
+    private void sweep(int maxKeyLength, List<? extends SUDA2Result> results) {
+        
+        // Check
+        if (isEmpty(this.data)) {
+            return;
+        }
+        
+        // Prepare
+        Pair<SUDA2ItemRegistry, Pair<Integer, Integer>> state = getInitialState();
+        SUDA2ItemRegistry list = state.first;
+        int numUniqueRecords = state.second.first;
+        int numDuplicateRecords = state.second.second;
+        
+        // Execute
+        this.result = new SUDA2ResultSweep(results);
+        this.result.init(this.columns, maxKeyLength, numUniqueRecords, numDuplicateRecords);
+        this.result.setOrder(this.order);
+        this.suda2(maxKeyLength, list);
     }
 }
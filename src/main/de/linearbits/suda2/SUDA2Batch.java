@@ -0,0 +1,239 @@
+/*
+ * SUDA2: An implementation of the SUDA2 algorithm for Java
+ * Copyright 2017 Fabian Prasser
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.linearbits.suda2;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Executes the SUDA2 algorithm for many subsets of the columns of a dataset. Items and
+ * their rows are registered only once for the complete dataset and shared between
+ * all executions, which may run in parallel.
+ * 
+ * @author Fabian Prasser
+ */
+public class SUDA2Batch {
+
+    /** The data */
+    private final int[][]           data;
+    /** Number of columns */
+    private final int               columns;
+    /** Number of threads */
+    private int                     threads = Runtime.getRuntime().availableProcessors();
+    /** Items per column, registered for all rows */
+    private List<List<SUDA2Item>>   items;
+
+    /**
+     * Creates a new instance
+     * @param data
+     */
+    public SUDA2Batch(int[][] data) {
+        if (data == null || (data.length > 0 && data[0] == null)) {
+            throw new NullPointerException("Data must not be null");
+        }
+        this.data = data;
+        this.columns = data.length == 0 ? 0 : data[0].length;
+    }
+
+    /**
+     * Executes the SUDA2 algorithm for each subset of columns.
+     * 
+     * @param subsets Indices of columns
+     * @param maxKeyLength If maxKeyLength <= 0, maxKeyLength will be set to the number of columns in the subset
+     * @return Results in the order of the subsets
+     */
+    public List<SUDA2StatisticsKeys> getStatisticsKeys(List<int[]> subsets, final int maxKeyLength) {
+        List<Callable<SUDA2StatisticsKeys>> tasks = new ArrayList<>();
+        for (final int[] subset : subsets) {
+            check(subset);
+            tasks.add(new Callable<SUDA2StatisticsKeys>() {
+                @Override
+                public SUDA2StatisticsKeys call() throws Exception {
+                    return getInstance(subset).getStatisticsKeys(maxKeyLength);
+                }
+            });
+        }
+        return execute(tasks);
+    }
+
+    /**
+     * Executes the SUDA2 algorithm for each subset of columns.
+     * 
+     * @param subsets Indices of columns
+     * @param maxKeyLength If maxKeyLength <= 0, maxKeyLength will be set to the number of columns in the subset
+     * @param sdcMicroScores Whether to mimic sdcMicro or use original definition by Elliot
+     * @return Results in the order of the subsets
+     */
+    public List<SUDA2StatisticsScores> getStatisticsScores(List<int[]> subsets, final int maxKeyLength, final boolean sdcMicroScores) {
+        List<Callable<SUDA2StatisticsScores>> tasks = new ArrayList<>();
+        for (final int[] subset : subsets) {
+            check(subset);
+            tasks.add(new Callable<SUDA2StatisticsScores>() {
+                @Override
+                public SUDA2StatisticsScores call() throws Exception {
+                    return getInstance(subset).getStatisticsScores(maxKeyLength, sdcMicroScores);
+                }
+            });
+        }
+        return execute(tasks);
+    }
+
+    /**
+     * Sets the number of threads. Defaults to the number of available processors.
+     * @param threads
+     */
+    public void setThreads(int threads) {
+        if (threads <= 0) {
+            throw new IllegalArgumentException("Number of threads must be positive");
+        }
+        this.threads = threads;
+    }
+
+    /**
+     * Checks a subset of columns
+     * @param subset
+     */
+    private void check(int[] subset) {
+        if (subset == null || subset.length == 0) {
+            throw new IllegalArgumentException("Subset must contain at least one column");
+        }
+        boolean[] contained = new boolean[columns];
+        for (int column : subset) {
+            if (column < 0 || column >= columns) {
+                throw new IllegalArgumentException("Invalid column: " + column);
+            }
+            if (contained[column]) {
+                throw new IllegalArgumentException("Duplicate column: " + column);
+            }
+            contained[column] = true;
+        }
+    }
+
+    /**
+     * Executes the tasks
+     * @param tasks
+     * @return
+     */
+    private <T> List<T> execute(List<Callable<T>> tasks) {
+
+        // Prepare shared state
+        this.getItems();
+        
+        // Execute
+        ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, Math.min(threads, tasks.size())));
+        try {
+            List<T> result = new ArrayList<>();
+            for (Future<T> future : executor.invokeAll(tasks)) {
+                result.add(future.get());
+            }
+            return result;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SUDA2Exception("Interrupted", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new SUDA2Exception("Error executing SUDA2", e.getCause());
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    /**
+     * Returns an instance of SUDA2 for the given subset of columns, which is
+     * initialized with the shared items
+     * @param subset
+     * @return
+     */
+    private SUDA2 getInstance(int[] subset) {
+
+        // Empty
+        if (data.length == 0) {
+            return new SUDA2(new int[0][0]);
+        }
+        
+        // Determine rows which can be ignored for this subset
+        SUDA2Groupify groupify = new SUDA2Groupify(data.length);
+        SUDA2IntSetBits rows = new SUDA2IntSetBits(1, data.length);
+        int index = 1; // Value 0 is reserved for empty entries in SUDA2IntSet
+        for (int[] row : data) {
+            int[] record = new int[subset.length];
+            for (int i = 0; i < subset.length; i++) {
+                record[i] = row[subset[i]];
+            }
+            if (!groupify.canBeIgnored(record)) {
+                rows.add(index);
+            }
+            index++;
+        }
+        
+        // Collect items, projected to these rows if necessary
+        SUDA2ItemRegistry registry = new SUDA2ItemRegistry();
+        for (int column : subset) {
+            for (SUDA2Item item : items.get(column)) {
+                SUDA2Item _item = rows.size() == data.length ? new SUDA2Item(item.getColumn(), item.getValue(), item.getId(), item.getRows()) :
+                                                               item.getProjection(rows);
+                if (_item != null) {
+                    registry.add(_item);
+                }
+            }
+        }
+        
+        // Return
+        return new SUDA2(data, subset.length, registry, groupify.getNumUniqueRecords(), groupify.getNumDuplicateRecords());
+    }
+
+    /**
+     * Returns the items of all columns, registered for all rows
+     * @return
+     */
+    private List<List<SUDA2Item>> getItems() {
+        
+        // Already done
+        if (this.items != null) {
+            return this.items;
+        }
+        
+        // Register
+        SUDA2ItemRegistry registry = new SUDA2ItemRegistryDense(data, columns);
+        int index = 1; // Value 0 is reserved for empty entries in SUDA2IntSet
+        for (int[] row : data) {
+            for (int column = 0; column < columns; column++) {
+                registry.register(column, row[column]).addRow(index);
+            }
+            index++;
+        }
+        
+        // Group by column
+        this.items = new ArrayList<>();
+        for (int column = 0; column < columns; column++) {
+            this.items.add(new ArrayList<SUDA2Item>());
+        }
+        for (SUDA2Item item : registry.values) {
+            if (item != null) {
+                this.items.get(item.getColumn()).add(item);
+            }
+        }
+        return this.items;
+    }
+}
@@ -0,0 +1,134 @@
+/*
+ * SUDA2: An implementation of the SUDA2 algorithm for Java
+ * Copyright 2017 Fabian Prasser
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.linearbits.suda2;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+
+/**
+ * A checkpoint of an execution, which consists of the number of reference items on the
+ * first level which have been processed completely and the state of the result. The
+ * checkpoint is written to a temporary file, which then replaces the checkpoint file.
+ *
+ * @author Fabian Prasser
+ */
+class SUDA2Checkpoint {
+
+    /** Marks checkpoint files */
+    private static final int MAGIC   = 0x53554441;
+    /** Version of the format */
+    private static final int VERSION = 3;
+
+    /** File */
+    private final File       file;
+    /** Interval between checkpoints in milliseconds */
+    private final long       interval;
+    /** Fingerprint of the data and the configuration */
+    private final long       fingerprint;
+    /** Time of the last checkpoint */
+    private long             time;
+
+    /**
+     * Creates a new instance
+     * @param file
+     * @param interval
+     * @param fingerprint
+     */
+    SUDA2Checkpoint(File file, long interval, long fingerprint) {
+        this.file = file;
+        this.interval = interval;
+        this.fingerprint = fingerprint;
+        this.time = System.currentTimeMillis();
+    }
+
+    /**
+     * Deletes the checkpoint
+     */
+    void delete() {
+        if (file.exists() && !file.delete()) {
+            throw new SUDA2Exception("Cannot delete checkpoint: " + file);
+        }
+    }
+
+    /**
+     * Restores the state of the result from the checkpoint, if it exists and matches the
+     * data and the configuration. Returns the number of reference items processed, or -1
+     * if there is no such checkpoint.
+     * @param result
+     * @return
+     */
+    int read(SUDA2Result result) {
+
+        // No checkpoint
+        if (!file.exists()) {
+            return -1;
+        }
+
+        // Read
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION || in.readLong() != fingerprint) {
+                return -1;
+            }
+            int processed = in.readInt();
+            return result.read(in) ? processed : -1;
+        } catch (IOException e) {
+            throw new SUDA2Exception("Cannot read checkpoint: " + file, e);
+        }
+    }
+
+    /**
+     * Writes a checkpoint, if the interval has passed since the last checkpoint
+     * @param processed
+     * @param result
+     */
+    void update(int processed, SUDA2Result result) {
+        long now = System.currentTimeMillis();
+        if (now - time >= interval) {
+            write(processed, result);
+            time = now;
+        }
+    }
+
+    /**
+     * Writes a checkpoint
+     * @param processed
+     * @param result
+     */
+    void write(int processed, SUDA2Result result) {
+        File temp = new File(file.getPath() + ".tmp");
+        try {
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temp)))) {
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+                out.writeLong(fingerprint);
+                out.writeInt(processed);
+                result.write(out);
+            }
+            Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new SUDA2Exception("Cannot write checkpoint: " + file, e);
+        }
+    }
+}
@@ -0,0 +1,196 @@
+/*
+ * SUDA2: An implementation of the SUDA2 algorithm for Java
+ * Copyright 2017 Fabian Prasser
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.linearbits.suda2;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * Constraints on the columns which may form a key. If allowed groups have been
+ * defined, only keys consisting of columns from one of the groups are searched for.
+ * Keys containing all columns of a forbidden combination are never searched for.
+ *
+ * @author Fabian Prasser
+ */
+public class SUDA2ColumnConstraints {
+
+    /**
+     * The constraints applying to a subset of the search space, which is defined by
+     * the columns of the reference items on the current path of the recursion
+     *
+     * @author Fabian Prasser
+     */
+    static class Context {
+
+        /** Columns of the reference items */
+        private final BitSet       path;
+        /** Groups containing all columns on the path, null if unrestricted */
+        private final List<BitSet> groups;
+        /** Union of the groups, null if unrestricted */
+        private final BitSet       allowed;
+        /** Columns which would complete a forbidden combination */
+        private final BitSet       forbidden;
+        /** Maximal number of further items */
+        private final int          maxSize;
+
+        /**
+         * Creates a new instance
+         * @param path
+         * @param groups
+         * @param forbidden
+         */
+        private Context(BitSet path, List<BitSet> groups, BitSet forbidden) {
+            this.path = path;
+            this.groups = groups;
+            this.forbidden = forbidden;
+            if (groups == null) {
+                this.allowed = null;
+                this.maxSize = Integer.MAX_VALUE;
+            } else {
+                this.allowed = new BitSet();
+                int maxSize = 0;
+                for (BitSet group : groups) {
+                    this.allowed.or(group);
+                    maxSize = Math.max(maxSize, group.cardinality() - path.cardinality());
+                }
+                this.maxSize = maxSize;
+            }
+        }
+
+        /**
+         * Returns the maximal number of items which may be added to the path
+         * @return
+         */
+        int getMaxSize() {
+            return this.maxSize;
+        }
+
+        /**
+         * Returns whether an item from the given column may be added to the path
+         * @param column
+         * @return
+         */
+        boolean isAllowed(int column) {
+            return (allowed == null || allowed.get(column)) && !forbidden.get(column) && !path.get(column);
+        }
+    }
+
+    /** Allowed groups */
+    private final List<BitSet> groups    = new ArrayList<>();
+    /** Forbidden combinations */
+    private final List<BitSet> forbidden = new ArrayList<>();
+
+    /**
+     * Adds a group of columns. If groups have been added, only keys which are subsets of
+     * one of the groups will be searched for.
+     * @param columns
+     */
+    public void addAllowedGroup(int... columns) {
+        this.groups.add(toBitSet(columns));
+    }
+
+    /**
+     * Adds a forbidden combination of columns. Keys containing all of the columns will not
+     * be searched for.
+     * @param columns
+     */
+    public void addForbiddenCombination(int... columns) {
+        this.forbidden.add(toBitSet(columns));
+    }
+
+    /**
+     * Returns the context for the given reference column
+     * @param context
+     * @param column
+     * @return
+     */
+    Context getContext(Context context, int column) {
+
+        // Path
+        BitSet path = (BitSet) context.path.clone();
+        path.set(column);
+
+        // Groups containing the path
+        List<BitSet> groups = null;
+        if (context.groups != null) {
+            groups = new ArrayList<>();
+            for (BitSet group : context.groups) {
+                if (group.get(column)) {
+                    groups.add(group);
+                }
+            }
+        }
+
+        // Return
+        return new Context(path, groups, getForbiddenColumns(path));
+    }
+
+    /**
+     * Returns a fingerprint of the groups and combinations
+     * @return
+     */
+    long getFingerprint() {
+        return 31L * groups.hashCode() + forbidden.hashCode();
+    }
+
+    /**
+     * Returns the context for the first level
+     * @return
+     */
+    Context getRootContext() {
+        BitSet path = new BitSet();
+        return new Context(path, groups.isEmpty() ? null : groups, getForbiddenColumns(path));
+    }
+
+    /**
+     * Returns all columns which would complete a forbidden combination together
+     * with the given path
+     * @param path
+     * @return
+     */
+    private BitSet getForbiddenColumns(BitSet path) {
+        BitSet result = new BitSet();
+        for (BitSet combination : forbidden) {
+            BitSet missing = (BitSet) combination.clone();
+            missing.andNot(path);
+            if (missing.cardinality() == 1) {
+                result.or(missing);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Converts the columns into a bitset
+     * @param columns
+     * @return
+     */
+    private BitSet toBitSet(int... columns) {
+        if (columns == null || columns.length == 0) {
+            throw new IllegalArgumentException("No columns specified");
+        }
+        BitSet result = new BitSet();
+        for (int column : columns) {
+            if (column < 0) {
+                throw new IllegalArgumentException("Invalid column: " + column);
+            }
+            result.set(column);
+        }
+        return result;
+    }
+}
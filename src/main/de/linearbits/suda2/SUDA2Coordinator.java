@@ -0,0 +1,511 @@
+/*
+ * SUDA2: An implementation of the SUDA2 algorithm for Java
+ * Copyright 2017 Fabian Prasser
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.linearbits.suda2;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Coordinates the execution of the SUDA2 algorithm by worker processes connected via local
+ * sockets. The reference items on the first level are split into ranges, which are handed out
+ * to the workers. Each worker loads the data itself, processes ranges and sends back its
+ * results, which are merged by the coordinator.
+ *
+ * @see SUDA2Worker
+ * @author Fabian Prasser
+ */
+public class SUDA2Coordinator implements Closeable {
+
+    /**
+     * Connection to a worker
+     *
+     * @author Fabian Prasser
+     */
+    private static class Connection {
+
+        /** Socket */
+        private final Socket           socket;
+        /** Input */
+        private final DataInputStream  in;
+        /** Output */
+        private final DataOutputStream out;
+
+        /**
+         * Creates a new instance
+         * @param socket
+         * @throws IOException
+         */
+        private Connection(Socket socket) throws IOException {
+            this.socket = socket;
+            this.in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+            this.out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+        }
+
+        /**
+         * Closes the connection
+         */
+        private void close() {
+            try {
+                socket.close();
+            } catch (IOException e) {
+                // Ignore
+            }
+        }
+    }
+
+    /** Marks connections of workers */
+    static final int               MAGIC            = 0x53554432;
+    /** Command: no further tasks */
+    static final int               COMMAND_DONE     = 0;
+    /** Command: process a range */
+    static final int               COMMAND_TASK     = 1;
+    /** Result type */
+    static final int               TYPE_KEYS        = 0;
+    /** Result type */
+    static final int               TYPE_SCORES      = 1;
+    /** Result type */
+    static final int               TYPE_COLUMNS     = 2;
+
+    /**
+     * Creates a result
+     * @param data
+     * @param columns
+     * @param type
+     * @param maxKeyLength
+     * @param sdcMicroScores
+     * @return
+     */
+    static SUDA2Result getResult(int[][] data, int columns, int type, int maxKeyLength, boolean sdcMicroScores) {
+        switch (type) {
+        case TYPE_KEYS:
+            return new SUDA2StatisticsKeys(data.length, columns, maxKeyLength);
+        case TYPE_SCORES:
+            return new SUDA2StatisticsScores(data.length, columns, maxKeyLength, sdcMicroScores);
+        case TYPE_COLUMNS:
+            return new SUDA2StatisticsColumns(data.length, columns, maxKeyLength, sdcMicroScores);
+        default:
+            throw new IllegalArgumentException("Unknown result type: " + type);
+        }
+    }
+
+    /** The data */
+    private final int[][]          data;
+    /** Number of columns */
+    private final int              columns;
+    /** Fingerprint of the data */
+    private final long             fingerprint;
+    /** Server socket */
+    private final ServerSocket     server;
+    /** Connected workers */
+    private final List<Connection> connections       = new ArrayList<>();
+    /** Number of ranges per worker */
+    private int                    rangesPerWorker   = 8;
+    /** Number of reference items on the first level, -1 if not determined yet */
+    private int                    numReferenceItems = -1;
+    /** Time in milliseconds to wait for workers, when all workers have been lost */
+    private volatile long          workerTimeout     = 60000L;
+
+    /**
+     * Creates a new instance, which accepts workers on the loopback interface
+     * @param data
+     * @param port Port, 0 for any free port
+     * @throws IOException
+     */
+    public SUDA2Coordinator(int[][] data, int port) throws IOException {
+        if (data == null || (data.length > 0 && data[0] == null)) {
+            throw new NullPointerException("Data must not be null");
+        }
+        this.data = data;
+        this.columns = data.length == 0 ? 0 : data[0].length;
+        this.fingerprint = SUDA2.getFingerprint(data);
+        this.server = new ServerSocket(port, 50, InetAddress.getLoopbackAddress());
+        Thread acceptor = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                accept();
+            }
+        }, "SUDA2Coordinator");
+        acceptor.setDaemon(true);
+        acceptor.start();
+    }
+
+    /**
+     * Blocks until the given number of workers is connected
+     * @param workers
+     */
+    public void awaitWorkers(int workers) {
+        awaitWorkers(workers, 0L);
+    }
+
+    /**
+     * Releases all workers and stops accepting workers
+     */
+    @Override
+    public void close() {
+        try {
+            server.close();
+        } catch (IOException e) {
+            // Ignore
+        }
+        synchronized (connections) {
+            for (Connection connection : connections) {
+                try {
+                    connection.out.writeInt(COMMAND_DONE);
+                    connection.out.flush();
+                } catch (IOException e) {
+                    // Ignore
+                }
+                connection.close();
+            }
+            connections.clear();
+            connections.notifyAll();
+        }
+    }
+
+    /**
+     * Returns the number of workers connected
+     * @return
+     */
+    public int getNumWorkers() {
+        synchronized (connections) {
+            return connections.size();
+        }
+    }
+
+    /**
+     * Returns the port on which workers are accepted
+     * @return
+     */
+    public int getPort() {
+        return server.getLocalPort();
+    }
+
+    /**
+     * Executes the SUDA2 algorithm. Blocks until at least one worker is connected.
+     *
+     * @param maxKeyLength If maxKeyLength <= 0, maxKeyLength will be set to the number of columns
+     * @param sdcMicroScores Whether to mimic sdcMicro or use original definition by Elliot
+     * @return
+     */
+    public SUDA2StatisticsColumns getStatisticsColumns(int maxKeyLength, boolean sdcMicroScores) {
+        return (SUDA2StatisticsColumns) execute(TYPE_COLUMNS, maxKeyLength, sdcMicroScores);
+    }
+
+    /**
+     * Executes the SUDA2 algorithm. Blocks until at least one worker is connected.
+     *
+     * @param maxKeyLength If maxKeyLength <= 0, maxKeyLength will be set to the number of columns
+     * @return
+     */
+    public SUDA2StatisticsKeys getStatisticsKeys(int maxKeyLength) {
+        return (SUDA2StatisticsKeys) execute(TYPE_KEYS, maxKeyLength, false);
+    }
+
+    /**
+     * Executes the SUDA2 algorithm. Blocks until at least one worker is connected.
+     *
+     * @param maxKeyLength If maxKeyLength <= 0, maxKeyLength will be set to the number of columns
+     * @param sdcMicroScores Whether to mimic sdcMicro or use original definition by Elliot
+     * @return
+     */
+    public SUDA2StatisticsScores getStatisticsScores(int maxKeyLength, boolean sdcMicroScores) {
+        return (SUDA2StatisticsScores) execute(TYPE_SCORES, maxKeyLength, sdcMicroScores);
+    }
+
+    /**
+     * Sets the time to wait for a worker to connect, when all workers have been lost during
+     * an execution. If no worker connects in time, the execution fails. The timeout also limits
+     * the time a connecting worker may take for the handshake and the time a worker may take to
+     * return the result of a range. Workers exceeding it are dropped and their range is handed
+     * out again. Defaults to one minute.
+     * @param timeoutMillis
+     */
+    public void setWorkerTimeout(long timeoutMillis) {
+        if (timeoutMillis <= 0) {
+            throw new IllegalArgumentException("Timeout must be positive");
+        }
+        this.workerTimeout = timeoutMillis;
+    }
+
+    /**
+     * Sets the number of ranges of reference items per worker. More ranges balance the load
+     * better, as the costs of processing reference items differ strongly. Defaults to 8.
+     * @param ranges
+     */
+    public void setRangesPerWorker(int ranges) {
+        if (ranges <= 0) {
+            throw new IllegalArgumentException("Number of ranges must be positive");
+        }
+        this.rangesPerWorker = ranges;
+    }
+
+    /**
+     * Accepts workers. The handshake is performed by a separate thread for each connection,
+     * so that a client, which does not complete the handshake, does not block other workers.
+     */
+    private void accept() {
+        while (!server.isClosed()) {
+            try {
+                final Socket socket = server.accept();
+                Thread handshake = new Thread(new Runnable() {
+                    @Override
+                    public void run() {
+                        handshake(socket);
+                    }
+                }, "SUDA2Coordinator-Handshake");
+                handshake.setDaemon(true);
+                handshake.start();
+            } catch (IOException e) {
+                // Ignore
+            }
+        }
+    }
+
+    /**
+     * Blocks until the given number of workers is connected or the timeout has passed.
+     * Returns whether the workers are connected.
+     * @param workers
+     * @param timeout In milliseconds, 0 for no timeout
+     * @return
+     */
+    private boolean awaitWorkers(int workers, long timeout) {
+        long deadline = System.currentTimeMillis() + timeout;
+        synchronized (connections) {
+            while (connections.size() < workers) {
+                if (server.isClosed()) {
+                    throw new SUDA2Exception("Coordinator has been closed");
+                }
+                long remaining = timeout == 0L ? 0L : deadline - System.currentTimeMillis();
+                if (timeout != 0L && remaining <= 0L) {
+                    return false;
+                }
+                try {
+                    connections.wait(remaining);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new SUDA2Exception("Interrupted", e);
+                }
+            }
+            return true;
+        }
+    }
+
+    /**
+     * Returns the read timeout for sockets
+     * @return
+     */
+    private int getSocketTimeout() {
+        return (int) Math.min(Integer.MAX_VALUE, workerTimeout);
+    }
+
+    /**
+     * Performs the handshake with a worker and registers the connection, if accepted
+     * @param socket
+     */
+    private void handshake(Socket socket) {
+        Connection connection = null;
+        try {
+            socket.setSoTimeout(getSocketTimeout());
+            connection = new Connection(socket);
+            boolean accepted = connection.in.readInt() == MAGIC && connection.in.readLong() == fingerprint;
+            connection.out.writeBoolean(accepted);
+            connection.out.flush();
+            if (!accepted) {
+                connection.close();
+                return;
+            }
+            synchronized (connections) {
+                if (server.isClosed()) {
+                    connection.out.writeInt(COMMAND_DONE);
+                    connection.out.flush();
+                    connection.close();
+                } else {
+                    connections.add(connection);
+                    connections.notifyAll();
+                }
+            }
+        } catch (IOException e) {
+            if (connection != null) {
+                connection.close();
+            } else {
+                try {
+                    socket.close();
+                } catch (IOException e1) {
+                    // Ignore
+                }
+            }
+        }
+    }
+
+    /**
+     * Executes the algorithm
+     * @param type
+     * @param maxKeyLength
+     * @param sdcMicroScores
+     * @return
+     */
+    private SUDA2Result execute(final int type, int maxKeyLength, final boolean sdcMicroScores) {
+
+        // If maxK <= 0, maxK will be set to the number of columns
+        final int maxK = maxKeyLength > 0 ? maxKeyLength : columns;
+
+        // Number of reference items
+        if (numReferenceItems == -1) {
+            numReferenceItems = new SUDA2(data).getNumReferenceItems();
+        }
+
+        // Prepare ranges
+        awaitWorkers(1);
+        int numRanges = Math.max(1, Math.min(numReferenceItems, getNumWorkers() * rangesPerWorker));
+        final int[] boundaries = new int[numRanges + 1];
+        for (int i = 0; i <= numRanges; i++) {
+            boundaries[i] = (int) ((long) numReferenceItems * (long) i / (long) numRanges);
+        }
+        final LinkedList<Integer> pending = new LinkedList<>();
+        for (int i = 0; i < numRanges; i++) {
+            pending.add(i);
+        }
+        final SUDA2Result[] results = new SUDA2Result[numRanges];
+
+        // Process ranges, until all have been processed successfully
+        while (!pending.isEmpty()) {
+
+            // Workers, which may have been lost
+            if (!awaitWorkers(1, workerTimeout)) {
+                throw new SUDA2Exception("No workers connected within " + workerTimeout + " ms");
+            }
+            List<Connection> workers;
+            synchronized (connections) {
+                workers = new ArrayList<>(connections);
+            }
+
+            // Tasks
+            List<Callable<Void>> tasks = new ArrayList<>();
+            for (final Connection worker : workers) {
+                tasks.add(new Callable<Void>() {
+                    @Override
+                    public Void call() throws Exception {
+                        process(worker, type, maxK, sdcMicroScores, boundaries, pending, results);
+                        return null;
+                    }
+                });
+            }
+
+            // Execute
+            ExecutorService executor = Executors.newFixedThreadPool(workers.size());
+            try {
+                for (Future<Void> future : executor.invokeAll(tasks)) {
+                    future.get();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new SUDA2Exception("Interrupted", e);
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof RuntimeException) {
+                    throw (RuntimeException) e.getCause();
+                }
+                throw new SUDA2Exception("Error executing SUDA2", e.getCause());
+            } finally {
+                executor.shutdown();
+            }
+        }
+
+        // Merge in the order of the ranges
+        SUDA2Result result = results[0];
+        for (int i = 1; i < results.length; i++) {
+            result.merge(results[i]);
+        }
+        return result;
+    }
+
+    /**
+     * Hands out ranges to a worker, until all ranges have been handed out or the worker fails
+     * @param worker
+     * @param type
+     * @param maxKeyLength
+     * @param sdcMicroScores
+     * @param boundaries
+     * @param pending
+     * @param results
+     */
+    private void process(Connection worker,
+                         int type,
+                         int maxKeyLength,
+                         boolean sdcMicroScores,
+                         int[] boundaries,
+                         LinkedList<Integer> pending,
+                         SUDA2Result[] results) {
+
+        while (true) {
+
+            // Next range
+            Integer range;
+            synchronized (pending) {
+                range = pending.poll();
+            }
+            if (range == null) {
+                return;
+            }
+
+            // Process
+            try {
+                worker.socket.setSoTimeout(getSocketTimeout());
+                worker.out.writeInt(COMMAND_TASK);
+                worker.out.writeInt(type);
+                worker.out.writeInt(maxKeyLength);
+                worker.out.writeBoolean(sdcMicroScores);
+                worker.out.writeInt(boundaries[range]);
+                worker.out.writeInt(boundaries[range + 1]);
+                worker.out.flush();
+                if (!worker.in.readBoolean()) {
+                    throw new SUDA2Exception("Error in worker: " + worker.in.readUTF());
+                }
+                SUDA2Result result = getResult(data, columns, type, maxKeyLength, sdcMicroScores);
+                if (!result.read(worker.in)) {
+                    throw new IOException("Invalid result");
+                }
+                results[range] = result;
+
+            // Return range and drop worker
+            } catch (IOException e) {
+                synchronized (pending) {
+                    pending.add(range);
+                }
+                synchronized (connections) {
+                    connections.remove(worker);
+                }
+                worker.close();
+                return;
+            }
+        }
+    }
+}
@@ -42,6 +42,9 @@ public class SUDA2Groupify {
         /** The key of this class. */
         public final int[] key;
 
+        /** The first row in which the key has been seen. */
+        public int         row   = 0;
+
         /** The next element in this bucket. */
         public Entry       next  = null;
 
@@ -148,7 +151,7 @@ public class SUDA2Groupify {
      * @param array
      * @return the hashcode
      */
-    private static int hashcode(int[] array) {
+    static int hashcode(int[] array) {
         final int len = array.length;
         int result = 23;
         int i = 0;
@@ -233,10 +236,11 @@ public class SUDA2Groupify {
         Entry[] newData = new Entry[length];
         for (Entry entry : buckets) {
             while (entry != null) {
+                final Entry next = entry.next;
                 final int index = entry.hashcode & (length - 1);
                 entry.next = newData[index];
                 newData[index] = entry;
-                entry = entry.next;
+                entry = next;
             }
         }
         buckets = newData;
@@ -244,13 +248,14 @@ public class SUDA2Groupify {
     }
 
     /**
-     * Adds a record
+     * Adds a record with the given hash code and returns its equivalence class
      * @param record
+     * @param hash
+     * @return
      */
-    boolean canBeIgnored(int[] record) {
+    private Entry add(int[] record, int hash) {
 
         // Find or create entry
-        int hash = hashcode(record);
         int index = hash & (buckets.length - 1);
         Entry entry = findEntry(record, index, hash);
         if (entry == null) {
@@ -269,7 +274,61 @@ public class SUDA2Groupify {
         numClassesOfSize2 -= entry.count == 3 ? 1 : 0;
         
         // Return
-        return entry.count > 2;
+        return entry;
+    }
+
+    /**
+     * Adds a record
+     * @param record
+     */
+    boolean canBeIgnored(int[] record) {
+        return add(record, hashcode(record)).count > 2;
+    }
+
+    /**
+     * Adds a record with the given hash code
+     * @param record
+     * @param hash
+     */
+    boolean canBeIgnored(int[] record, int hash) {
+        return add(record, hash).count > 2;
+    }
+
+    /**
+     * Returns the representatives of all equivalence classes containing more than one record
+     * @return
+     */
+    SUDA2IntSet getDuplicateRepresentatives() {
+
+        // Determine range
+        int min = Integer.MAX_VALUE;
+        int max = Integer.MIN_VALUE;
+        for (Entry entry : buckets) {
+            while (entry != null) {
+                if (entry.count > 1) {
+                    min = Math.min(min, entry.row);
+                    max = Math.max(max, entry.row);
+                }
+                entry = entry.next;
+            }
+        }
+        
+        // Empty
+        if (min > max) {
+            return new SUDA2IntSetJump();
+        }
+        
+        // Collect as bitset to support fast probing
+        SUDA2IntSet result = new SUDA2IntSetBits(min, max);
+        for (Entry entry : buckets) {
+            while (entry != null) {
+                if (entry.count > 1) {
+                    result.add(entry.row);
+                }
+                entry = entry.next;
+            }
+        }
+        return result;
     }
     
     /**
@@ -287,4 +346,31 @@ public class SUDA2Groupify {
     int getNumUniqueRecords() {
         return this.numClassesOfSize1;
     }
+
+    /**
+     * Adds a record and returns the row representing its equivalence class,
+     * which is the first row in which the record has been seen
+     * @param record
+     * @param row
+     * @return
+     */
+    int getRepresentative(int[] record, int row) {
+        return getRepresentative(record, hashcode(record), row);
+    }
+
+    /**
+     * Adds a record with the given hash code and returns the row representing its 
+     * equivalence class, which is the first row in which the record has been seen
+     * @param record
+     * @param hash
+     * @param row
+     * @return
+     */
+    int getRepresentative(int[] record, int hash, int row) {
+        Entry entry = add(record, hash);
+        if (entry.count == 1) {
+            entry.row = row;
+        }
+        return entry.row;
+    }
 }
@@ -0,0 +1,323 @@
+/*
+ * SUDA2: An implementation of the SUDA2 algorithm for Java
+ * Copyright 2017 Fabian Prasser
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.linearbits.suda2;
+
+/**
+ * A groupify operator using open addressing, which stores a 64-bit fingerprint, the size and the
+ * first row of each equivalence class in a primitive array. Records are identified by their index in
+ * the data and only compared with the record in the first row of a class if the fingerprints match.
+ * Fingerprints are computed in a single pass over a record with four independent accumulators,
+ * similar to xxHash64, which are combined and finalized with the finalizer of MurmurHash3. Optionally,
+ * only a subset of the columns is considered.
+ *
+ * @author Fabian Prasser
+ */
+class SUDA2GroupifyPrimitive {
+
+    /** Load factor */
+    private static final float LOAD_FACTOR = 0.75f;
+    /** Number of ints per slot */
+    private static final int   SLOT_SIZE   = 4;
+    /** Offset of the lower half of the fingerprint in a slot */
+    private static final int   LOW         = 0;
+    /** Offset of the upper half of the fingerprint in a slot */
+    private static final int   HIGH        = 1;
+    /** Offset of the size of the class in a slot, 0 for empty slots */
+    private static final int   COUNT       = 2;
+    /** Offset of the first row of the class in a slot */
+    private static final int   ROW         = 3;
+    /** Multiplier */
+    private static final long  PRIME1      = 0x9E3779B185EBCA87L;
+    /** Multiplier */
+    private static final long  PRIME2      = 0xC2B2AE3D27D4EB4FL;
+
+    /**
+     * Returns the fingerprint of the given record
+     * @param record
+     * @param columns Columns considered, null for all columns
+     * @return
+     */
+    static long getFingerprint(int[] record, int[] columns) {
+
+        // Accumulate
+        long hash1 = PRIME1 + PRIME2;
+        long hash2 = PRIME2;
+        long hash3 = 0;
+        long hash4 = -PRIME1;
+        int length = columns == null ? record.length : columns.length;
+        int i = 0;
+        if (columns == null) {
+            for (; i + 3 < length; i += 4) {
+                hash1 = Long.rotateLeft(hash1 + record[i] * PRIME2, 31) * PRIME1;
+                hash2 = Long.rotateLeft(hash2 + record[i + 1] * PRIME2, 31) * PRIME1;
+                hash3 = Long.rotateLeft(hash3 + record[i + 2] * PRIME2, 31) * PRIME1;
+                hash4 = Long.rotateLeft(hash4 + record[i + 3] * PRIME2, 31) * PRIME1;
+            }
+            for (; i < length; i++) {
+                hash1 = Long.rotateLeft(hash1 + record[i] * PRIME2, 31) * PRIME1;
+            }
+        } else {
+            for (; i + 3 < length; i += 4) {
+                hash1 = Long.rotateLeft(hash1 + record[columns[i]] * PRIME2, 31) * PRIME1;
+                hash2 = Long.rotateLeft(hash2 + record[columns[i + 1]] * PRIME2, 31) * PRIME1;
+                hash3 = Long.rotateLeft(hash3 + record[columns[i + 2]] * PRIME2, 31) * PRIME1;
+                hash4 = Long.rotateLeft(hash4 + record[columns[i + 3]] * PRIME2, 31) * PRIME1;
+            }
+            for (; i < length; i++) {
+                hash1 = Long.rotateLeft(hash1 + record[columns[i]] * PRIME2, 31) * PRIME1;
+            }
+        }
+
+        // Combine and finalize
+        long hash = Long.rotateLeft(hash1, 1) + Long.rotateLeft(hash2, 7) +
+                    Long.rotateLeft(hash3, 12) + Long.rotateLeft(hash4, 18) + length;
+        hash ^= hash >>> 33;
+        hash *= 0xFF51AFD7ED558CCDL;
+        hash ^= hash >>> 33;
+        hash *= 0xC4CEB9FE1A85EC53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+
+    /** The data */
+    private final int[][] data;
+    /** Columns considered, null for all columns */
+    private final int[]   columns;
+    /** Slots */
+    private int[]         table;
+    /** Number of slots */
+    private int           slots;
+    /** Number of classes */
+    private int           elements;
+    /** Number of classes that can be stored until a rehash occurs */
+    private int           threshold;
+    /** Unique records */
+    private int           numClassesOfSize1;
+    /** Duplicate records */
+    private int           numClassesOfSize2;
+
+    /**
+     * Creates a new instance considering all columns
+     * @param data
+     * @param capacity
+     */
+    SUDA2GroupifyPrimitive(int[][] data, int capacity) {
+        this(data, null, capacity);
+    }
+
+    /**
+     * Creates a new instance considering the given columns
+     * @param data
+     * @param columns
+     * @param capacity
+     */
+    SUDA2GroupifyPrimitive(int[][] data, int[] columns, int capacity) {
+        this.data = data;
+        this.columns = columns;
+        int slots = 16;
+        while (slots * LOAD_FACTOR < capacity && slots < (1 << 28)) {
+            slots <<= 1;
+        }
+        this.slots = slots;
+        this.table = new int[slots * SLOT_SIZE];
+        this.threshold = (int) (slots * LOAD_FACTOR);
+    }
+
+    /**
+     * Adds the record in the given row and returns whether it can be ignored,
+     * because it is neither unique nor a duplicate
+     * @param row
+     * @return
+     */
+    boolean canBeIgnored(int row) {
+        int offset = add(row, getFingerprint(data[row], columns));
+        return table[offset + COUNT] > 2;
+    }
+
+    /**
+     * Adds the record in the given row with the given fingerprint and returns whether it can be
+     * ignored, because it is neither unique nor a duplicate
+     * @param row
+     * @param fingerprint
+     * @return
+     */
+    boolean canBeIgnored(int row, long fingerprint) {
+        int offset = add(row, fingerprint);
+        return table[offset + COUNT] > 2;
+    }
+
+    /**
+     * Returns the representatives of all equivalence classes containing more than one record.
+     * As 0 is reserved in sets of rows, the set contains the indices of the rows plus one.
+     * @return
+     */
+    SUDA2IntSet getDuplicateRepresentatives() {
+
+        // Determine range
+        int min = Integer.MAX_VALUE;
+        int max = Integer.MIN_VALUE;
+        for (int offset = 0; offset < table.length; offset += SLOT_SIZE) {
+            if (table[offset + COUNT] > 1) {
+                min = Math.min(min, table[offset + ROW] + 1);
+                max = Math.max(max, table[offset + ROW] + 1);
+            }
+        }
+
+        // Empty
+        if (min > max) {
+            return new SUDA2IntSetJump();
+        }
+
+        // Collect as bitset to support fast probing
+        SUDA2IntSet result = new SUDA2IntSetBits(min, max);
+        for (int offset = 0; offset < table.length; offset += SLOT_SIZE) {
+            if (table[offset + COUNT] > 1) {
+                result.add(table[offset + ROW] + 1);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns the number of records in equivalence classes of size 2
+     * @return
+     */
+    int getNumDuplicateRecords() {
+        return this.numClassesOfSize2 * 2;
+    }
+
+    /**
+     * Returns the number of records in equivalence classes of size 1
+     * @return
+     */
+    int getNumUniqueRecords() {
+        return this.numClassesOfSize1;
+    }
+
+    /**
+     * Adds the record in the given row and returns the first row of its class
+     * @param row
+     * @return
+     */
+    int getRepresentative(int row) {
+        int offset = add(row, getFingerprint(data[row], columns));
+        return table[offset + ROW];
+    }
+
+    /**
+     * Adds the record in the given row with the given fingerprint and returns the first row of its class
+     * @param row
+     * @param fingerprint
+     * @return
+     */
+    int getRepresentative(int row, long fingerprint) {
+        int offset = add(row, fingerprint);
+        return table[offset + ROW];
+    }
+
+    /**
+     * Adds a record and returns the offset of the slot of its class
+     * @param row
+     * @param fingerprint
+     * @return
+     */
+    private int add(int row, long fingerprint) {
+
+        // Find slot
+        int low = (int) fingerprint;
+        int high = (int) (fingerprint >>> 32);
+        int mask = slots - 1;
+        int slot = low & mask;
+        int offset = slot * SLOT_SIZE;
+        while (table[offset + COUNT] != 0 &&
+               (table[offset + LOW] != low || table[offset + HIGH] != high || !equals(table[offset + ROW], row))) {
+            slot = (slot + 1) & mask;
+            offset = slot * SLOT_SIZE;
+        }
+
+        // Create class
+        if (table[offset + COUNT] == 0) {
+            if (elements == threshold) {
+                rehash();
+                return add(row, fingerprint);
+            }
+            table[offset + LOW] = low;
+            table[offset + HIGH] = high;
+            table[offset + ROW] = row;
+            elements++;
+        }
+
+        // Track counts
+        int count = ++table[offset + COUNT];
+        numClassesOfSize1 += count == 1 ? 1 : 0;
+        numClassesOfSize1 -= count == 2 ? 1 : 0;
+        numClassesOfSize2 += count == 2 ? 1 : 0;
+        numClassesOfSize2 -= count == 3 ? 1 : 0;
+
+        // Return
+        return offset;
+    }
+
+    /**
+     * Compares the records in both rows
+     * @param row1
+     * @param row2
+     * @return
+     */
+    private boolean equals(int row1, int row2) {
+        int[] record1 = data[row1];
+        int[] record2 = data[row2];
+        if (columns == null) {
+            for (int i = 0; i < record1.length; i++) {
+                if (record1[i] != record2[i]) {
+                    return false;
+                }
+            }
+        } else {
+            for (int column : columns) {
+                if (record1[column] != record2[column]) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Doubles the number of slots
+     */
+    private void rehash() {
+        int _slots = slots << 1;
+        int[] _table = new int[_slots * SLOT_SIZE];
+        int mask = _slots - 1;
+        for (int offset = 0; offset < table.length; offset += SLOT_SIZE) {
+            if (table[offset + COUNT] != 0) {
+                int _offset = (table[offset + LOW] & mask) * SLOT_SIZE;
+                while (_table[_offset + COUNT] != 0) {
+                    _offset = (_offset + SLOT_SIZE) % _table.length;
+                }
+                _table[_offset + LOW] = table[offset + LOW];
+                _table[_offset + HIGH] = table[offset + HIGH];
+                _table[_offset + COUNT] = table[offset + COUNT];
+                _table[_offset + ROW] = table[offset + ROW];
+            }
+        }
+        this.table = _table;
+        this.slots = _slots;
+        this.threshold = (int) (_slots * LOAD_FACTOR);
+    }
+}
@@ -16,6 +16,8 @@
  */
 package de.linearbits.suda2;
 
+import java.util.Map;
+
 /**
  * Abstract int set
  * 
@@ -23,6 +25,39 @@ package de.linearbits.suda2;
  */
 public abstract class SUDA2IntSet extends Timeable {
 
+    /**
+     * Returns an empty set suitable for the given number of values within the given range
+     * @param size
+     * @param min
+     * @param max
+     * @return
+     */
+    static SUDA2IntSet getInstance(int size, int min, int max) {
+
+        // Very small set
+        if (size <= SUDA2IntSetJump.SIZE) {
+            return new SUDA2IntSetJump();
+        }
+
+        // Calculate capacity needed for hash set
+        int capacity = size - 1;
+        capacity |= capacity >> 1;
+        capacity |= capacity >> 2;
+        capacity |= capacity >> 4;
+        capacity |= capacity >> 8;
+        capacity |= capacity >> 16;
+        capacity++;
+
+        // If it saves space, use a bit set, or a two-level bit set if only the summary would
+        if ((capacity << 5) >= max - min) {
+            return new SUDA2IntSetBits(min, max);
+        } else if (((long) capacity << 11) >= max - min) {
+            return new SUDA2IntSetBlocks(min, max);
+        } else {
+            return new SUDA2IntSetHash();
+        }
+    }
+
     /**
      * Adds a new value to the set
      * @param value
@@ -45,6 +80,28 @@ public abstract class SUDA2IntSet extends Timeable {
      */
     public abstract boolean containsSpecialRow(SUDA2Item[] items, SUDA2Item referenceItem, int[][] data);
     
+    /**
+     * Returns whether the special row is contained in this set, checked on packed rows
+     * @param rows
+     * @param pattern
+     * @return
+     */
+    abstract boolean containsSpecialRow(SUDA2PackedRows rows, long[] pattern);
+
+    /**
+     * Returns an estimate of the number of bytes held by this set, excluding sets it is based on
+     * @return
+     */
+    abstract long getMemory();
+
+    /**
+     * Returns the number of elements contained in both sets
+     * 
+     * @param other
+     * @return
+     */
+    public abstract int intersectionSize(SUDA2IntSet other);
+
     /**
      * Returns a new set that contains only elements contained in both sets
      * 
@@ -66,6 +123,16 @@ public abstract class SUDA2IntSet extends Timeable {
      */
     public abstract boolean isSupportRowPresent(SUDA2IntSet other);
 
+    /**
+     * Returns a set with the same rows, which does not read rows mapped from a file. Returns this
+     * set, if it does not. Copies of mapped sets are shared via the given map.
+     * @param copies
+     * @return
+     */
+    SUDA2IntSet materialize(Map<SUDA2IntSet, SUDA2IntSet> copies) {
+        return this;
+    }
+
     /**
      * Return min
      * @return
@@ -84,6 +151,12 @@ public abstract class SUDA2IntSet extends Timeable {
      */
     public abstract int size();
     
+    /**
+     * Returns the elements of this set
+     * @return
+     */
+    public abstract int[] toArray();
+
     /**
      * To string
      */
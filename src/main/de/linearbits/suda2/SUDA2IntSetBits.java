@@ -84,6 +84,62 @@ public class SUDA2IntSetBits extends SUDA2IntSet {
         // ----------------------------------------------------- //
         return false;
     }
+
+    @Override
+    boolean containsSpecialRow(SUDA2PackedRows rows, long[] pattern) {
+        for (int offset = 0; offset < array.length; offset++) {
+            long element = array[offset];
+            while (element != 0L) {
+                if (rows.isSpecialRow(this.offset + (offset << 6) + Long.numberOfTrailingZeros(element), pattern)) {
+                    return true;
+                }
+                element &= element - 1;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    long getMemory() {
+        return 56L + 8L * array.length;
+    }
+
+    @Override
+    public int intersectionSize(SUDA2IntSet other) {
+
+        // No intersection
+        if (this.size == 0 || this.max < other.min() || other.max() < this.min) {
+            return 0;
+        }
+
+        // Intersect two bitsets
+        if (other.isBitSet()) {
+            
+            // Prepare
+            SUDA2IntSetBits _other = (SUDA2IntSetBits)other;
+
+            // Offsets
+            int index = offset / 64;
+            int _index = _other.offset / 64;
+            
+            // Shift to start at index describing the same offset
+            int maxIndex = Math.max(index, _index);
+            index = maxIndex - index;
+            _index = maxIndex - _index;
+                   
+            // And count identical bits
+            int count = 0;
+            while (index < array.length && _index < _other.array.length) {
+                count += Long.bitCount(array[index++] & _other.array[_index++]);
+            }
+            return count;
+
+        // Let the other set probe this set
+        } else {
+            return other.intersectionSize(this);
+        }
+    }
+
     @Override
     public SUDA2IntSet intersectWith(SUDA2IntSet other) {
 
@@ -156,6 +212,16 @@ public class SUDA2IntSetBits extends SUDA2IntSet {
         }
     }
     
+    /**
+     * Returns the bits describing the values from block * 64 to block * 64 + 63
+     * @param block
+     * @return
+     */
+    long getBlock(int block) {
+        int index = block - (offset >> 6);
+        return index < 0 || index >= array.length ? 0L : array[index];
+    }
+
     @Override
     public boolean isBitSet() {
         return true;
@@ -225,6 +291,20 @@ public class SUDA2IntSetBits extends SUDA2IntSet {
         return this.size;
     }
 
+    @Override
+    public int[] toArray() {
+        int[] result = new int[size];
+        int index = 0;
+        for (int offset = 0; offset < array.length; offset++) {
+            long element = array[offset];
+            while (element != 0L) {
+                result[index++] = this.offset + (offset << 6) + Long.numberOfTrailingZeros(element);
+                element &= element - 1;
+            }
+        }
+        return result;
+    }
+
     @Override
     public String toString() {
         return "Size=" + size + " offset=" + offset + " array=" + Arrays.toString(array);
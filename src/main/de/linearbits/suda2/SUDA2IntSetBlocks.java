@@ -0,0 +1,378 @@
+/*
+ * SUDA2: An implementation of the SUDA2 algorithm for Java
+ * Copyright 2017 Fabian Prasser
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.linearbits.suda2;
+
+import java.util.Arrays;
+
+/**
+ * A two-level bitset. The range of values is divided into blocks of 64 values. A summary
+ * contains one bit per block, which is set if the block contains a value, and only these blocks
+ * are stored, in ascending order. The position of a block is the number of bits set before it
+ * in the summary, which is computed from the number of blocks preceding each summary word.
+ * These numbers are updated lazily before the first lookup after blocks have been inserted,
+ * and blocks appended at the end are located without them. This requires much less space than
+ * a bitset if values are clustered with a few outliers.
+ *
+ * Sets must not be accessed concurrently while values are added. Once they have been published
+ * safely, they may be read concurrently. Readers may then update the numbers concurrently, but
+ * they write identical values and clear the volatile flag only after all of them.
+ *
+ * @author Fabian Prasser
+ */
+public class SUDA2IntSetBlocks extends SUDA2IntSet {
+
+    /** Summary, one bit per block */
+    private final long[]     summary;
+    /** Number of blocks preceding each word of the summary */
+    private final int[]      ranks;
+    /** Whether ranks must be updated */
+    private volatile boolean dirty;
+    /** Offset, multiple of the number of values described by a summary word */
+    private final int        offset;
+    /** Blocks containing values */
+    private long[]           blocks;
+    /** Number of blocks */
+    private int              numBlocks;
+    /** Number of values */
+    private int              size;
+    /** Min */
+    private int              min = Integer.MAX_VALUE;
+    /** Max */
+    private int              max = Integer.MIN_VALUE;
+
+    /**
+     * Creates a new instance
+     *
+     * @param min
+     * @param max
+     */
+    public SUDA2IntSetBlocks(int min, int max) {
+        this.offset = min & (~0xfff); // Multiple of 4096 less than or equal to min
+        this.summary = new long[((max - offset) >>> 12) + 1];
+        this.ranks = new int[summary.length];
+        this.blocks = new long[4];
+    }
+
+    @Override
+    public void add(int value) {
+
+        // Find block, the last block or the position after it without ranks
+        int block = (value - offset) >>> 6;
+        int word = block >>> 6;
+        long bit = 1L << block;
+        int last = numBlocks == 0 ? -1 : (max - offset) >>> 6;
+        int index;
+        if (block > last) {
+            index = numBlocks;
+        } else if (block == last) {
+            index = numBlocks - 1;
+        } else {
+            updateRanks();
+            index = ranks[word] + Long.bitCount(summary[word] & (bit - 1L));
+        }
+
+        // Insert block
+        if ((summary[word] & bit) == 0L) {
+            if (numBlocks == blocks.length) {
+                blocks = Arrays.copyOf(blocks, numBlocks << 1);
+            }
+            System.arraycopy(blocks, index, blocks, index + 1, numBlocks - index);
+            blocks[index] = 0L;
+            numBlocks++;
+            summary[word] |= bit;
+            dirty = true;
+        }
+
+        // Set bit
+        long element = 1L << (value - offset);
+        if ((blocks[index] & element) == 0L) {
+            blocks[index] |= element;
+            min = Math.min(value, min);
+            max = Math.max(value, max);
+            size++;
+        }
+    }
+
+    @Override
+    public boolean contains(int value) {
+        if (value < min || value > max) {
+            return false;
+        }
+        int block = (value - offset) >>> 6;
+        int word = block >>> 6;
+        long bit = 1L << block;
+        if ((summary[word] & bit) == 0L) {
+            return false;
+        }
+        updateRanks();
+        return (blocks[ranks[word] + Long.bitCount(summary[word] & (bit - 1L))] & (1L << (value - offset))) != 0L;
+    }
+
+    @Override
+    public boolean containsSpecialRow(SUDA2Item[] items, SUDA2Item referenceItem, int[][] data) {
+        int index = 0;
+        for (int word = 0; word < summary.length; word++) {
+            long mask = summary[word];
+            while (mask != 0L) {
+                int base = offset + (((word << 6) + Long.numberOfTrailingZeros(mask)) << 6);
+                long element = blocks[index++];
+                outer: while (element != 0L) {
+                    int[] row = data[base + Long.numberOfTrailingZeros(element) - 1];
+                    element &= element - 1L;
+                    for (SUDA2Item item : items) {
+                        if (!item.isContained(row)) {
+                            continue outer;
+                        }
+                    }
+                    if (!referenceItem.isContained(row)) {
+                        return true;
+                    }
+                }
+                mask &= mask - 1L;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    boolean containsSpecialRow(SUDA2PackedRows rows, long[] pattern) {
+        int index = 0;
+        for (int word = 0; word < summary.length; word++) {
+            long mask = summary[word];
+            while (mask != 0L) {
+                int base = offset + (((word << 6) + Long.numberOfTrailingZeros(mask)) << 6);
+                long element = blocks[index++];
+                while (element != 0L) {
+                    if (rows.isSpecialRow(base + Long.numberOfTrailingZeros(element), pattern)) {
+                        return true;
+                    }
+                    element &= element - 1L;
+                }
+                mask &= mask - 1L;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    long getMemory() {
+        return 104L + 12L * summary.length + 8L * blocks.length;
+    }
+
+    @Override
+    public int intersectionSize(SUDA2IntSet other) {
+
+        // No intersection
+        if (this.size == 0 || this.max < other.min() || other.max() < this.min) {
+            return 0;
+        }
+
+        // Intersect with bitsets block by block, probe others
+        if (other instanceof SUDA2IntSetBlocks || other.isBitSet()) {
+            return intersect(other, null, Integer.MAX_VALUE);
+        } else {
+            int count = 0;
+            for (int row : toArray()) {
+                count += other.contains(row) ? 1 : 0;
+            }
+            return count;
+        }
+    }
+
+    @Override
+    public SUDA2IntSet intersectWith(SUDA2IntSet other) {
+
+        // No intersection
+        if (this.size == 0 || this.max < other.min() || other.max() < this.min) {
+            return new SUDA2IntSetJump();
+        }
+
+        // Intersect with bitsets block by block, probe others
+        SUDA2IntSetBlocks result = new SUDA2IntSetBlocks(Math.max(this.min, other.min()), Math.min(this.max, other.max()));
+        if (other instanceof SUDA2IntSetBlocks || other.isBitSet()) {
+            intersect(other, result, Integer.MAX_VALUE);
+        } else {
+            for (int row : toArray()) {
+                if (other.contains(row)) {
+                    result.add(row);
+                }
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public boolean isBitSet() {
+        return false;
+    }
+
+    @Override
+    public boolean isSupportRowPresent(SUDA2IntSet other) {
+
+        // No intersection
+        if (this.size == 0 || this.max < other.min() || other.max() < this.min) {
+            return false;
+        }
+
+        // Intersect with bitsets block by block, probe others
+        if (other instanceof SUDA2IntSetBlocks || other.isBitSet()) {
+            return intersect(other, null, 2) == 1;
+        } else {
+            boolean supportRowFound = false;
+            for (int row : toArray()) {
+                if (other.contains(row)) {
+                    if (supportRowFound) {
+                        return false;
+                    }
+                    supportRowFound = true;
+                }
+            }
+            return supportRowFound;
+        }
+    }
+
+    @Override
+    public int max() {
+        return max;
+    }
+
+    @Override
+    public int min() {
+        return min;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public int[] toArray() {
+        int[] result = new int[size];
+        int index = 0;
+        int block = 0;
+        for (int word = 0; word < summary.length; word++) {
+            long mask = summary[word];
+            while (mask != 0L) {
+                int base = offset + (((word << 6) + Long.numberOfTrailingZeros(mask)) << 6);
+                long element = blocks[block++];
+                while (element != 0L) {
+                    result[index++] = base + Long.numberOfTrailingZeros(element);
+                    element &= element - 1L;
+                }
+                mask &= mask - 1L;
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return "Size=" + size + " offset=" + offset + " summary=" + Arrays.toString(summary) +
+               " blocks=" + Arrays.toString(Arrays.copyOf(blocks, numBlocks));
+    }
+
+    /**
+     * Appends a block, which must follow all blocks of this set
+     * @param block Index of the block relative to the offset
+     * @param element
+     */
+    private void append(int block, long element) {
+        if (numBlocks == blocks.length) {
+            blocks = Arrays.copyOf(blocks, numBlocks << 1);
+        }
+        blocks[numBlocks++] = element;
+        summary[block >>> 6] |= 1L << block;
+        dirty = true;
+        int base = offset + (block << 6);
+        min = Math.min(min, base + Long.numberOfTrailingZeros(element));
+        max = base + 63 - Long.numberOfLeadingZeros(element);
+        size += Long.bitCount(element);
+    }
+
+    /**
+     * Updates the number of blocks preceding each word of the summary, if blocks have been inserted
+     */
+    private void updateRanks() {
+        if (!dirty) {
+            return;
+        }
+        int rank = 0;
+        for (int word = 0; word < summary.length; word++) {
+            ranks[word] = rank;
+            rank += Long.bitCount(summary[word]);
+        }
+        dirty = false;
+    }
+
+    /**
+     * Intersects this set with a bitset or another two-level bitset block by block, skipping
+     * blocks which are empty in this set, and returns the number of values in the intersection
+     * @param other Bitset or two-level bitset
+     * @param result Set to which the intersection is appended, may be null
+     * @param limit Stop when this number of values has been found
+     * @return
+     */
+    private int intersect(SUDA2IntSet other, SUDA2IntSetBlocks result, int limit) {
+
+        // Prepare
+        SUDA2IntSetBlocks _other = other instanceof SUDA2IntSetBlocks ? (SUDA2IntSetBlocks) other : null;
+        SUDA2IntSetBits bits = _other == null ? (SUDA2IntSetBits) other : null;
+        int shift = _other == null ? 0 : (offset - _other.offset) >> 12;
+        int resultShift = result == null ? 0 : (offset - result.offset) >> 6;
+        if (_other != null) {
+            _other.updateRanks();
+        }
+
+        // Intersect summaries
+        int count = 0;
+        int index = 0;
+        for (int word = 0; word < summary.length && count < limit; word++) {
+            long mask = summary[word];
+            int _word = word + shift;
+            if (_other != null) {
+                mask &= _word < 0 || _word >= _other.summary.length ? 0L : _other.summary[_word];
+            }
+
+            // Intersect blocks
+            while (mask != 0L && count < limit) {
+                long bit = mask & -mask;
+                int block = (word << 6) + Long.numberOfTrailingZeros(mask);
+                long element = blocks[index + Long.bitCount(summary[word] & (bit - 1L))];
+                if (_other != null) {
+                    element &= _other.blocks[_other.ranks[_word] + Long.bitCount(_other.summary[_word] & (bit - 1L))];
+                } else {
+                    element &= bits.getBlock((offset >> 6) + block);
+                }
+                if (element != 0L) {
+                    count += Long.bitCount(element);
+                    if (result != null) {
+                        result.append(block + resultShift, element);
+                    }
+                }
+                mask &= mask - 1L;
+            }
+            index += Long.bitCount(summary[word]);
+        }
+
+        // Finalize, the result is complete
+        if (result != null) {
+            result.updateRanks();
+        }
+        return count;
+    }
+}
@@ -0,0 +1,342 @@
+/*
+ * SUDA2: An implementation of the SUDA2 algorithm for Java
+ * Copyright 2017 Fabian Prasser
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.linearbits.suda2;
+
+import java.util.Arrays;
+
+/**
+ * A compressed set of rows. Rows are sorted and divided into chunks of 64 rows. The first row of
+ * each chunk and the position of the chunk are stored as skip pointers, the remaining rows of a
+ * chunk are encoded as differences to their predecessors with a variable number of bytes. The set
+ * is immutable. Lookups decode a single chunk, intersections of two compressed sets are computed
+ * by merging and skip chunks which cannot contain rows of the other set.
+ *
+ * @author Fabian Prasser
+ */
+public class SUDA2IntSetCompressed extends SUDA2IntSet {
+
+    /** Number of rows per chunk */
+    private static final int CHUNK_SIZE = 64;
+
+    /** Encoded differences */
+    private final byte[]     bytes;
+    /** First row of each chunk */
+    private final int[]      firsts;
+    /** Position of each chunk, followed by the number of bytes */
+    private final int[]      positions;
+    /** Size */
+    private final int        size;
+    /** Max */
+    private final int        max;
+
+    /**
+     * Creates a new instance containing the given rows
+     * @param rows
+     */
+    public SUDA2IntSetCompressed(SUDA2IntSet rows) {
+
+        // Sort
+        int[] elements = rows.toArray();
+        Arrays.sort(elements);
+        this.size = elements.length;
+        this.max = size == 0 ? Integer.MIN_VALUE : elements[size - 1];
+        this.firsts = new int[(size + CHUNK_SIZE - 1) / CHUNK_SIZE];
+        this.positions = new int[firsts.length + 1];
+
+        // Determine positions
+        int position = 0;
+        for (int i = 0; i < size; i++) {
+            if (i % CHUNK_SIZE == 0) {
+                firsts[i / CHUNK_SIZE] = elements[i];
+                positions[i / CHUNK_SIZE] = position;
+            } else {
+                position += getLength(elements[i] - elements[i - 1]);
+            }
+        }
+        positions[firsts.length] = position;
+
+        // Encode
+        this.bytes = new byte[position];
+        position = 0;
+        for (int i = 0; i < size; i++) {
+            if (i % CHUNK_SIZE != 0) {
+                int delta = elements[i] - elements[i - 1];
+                while ((delta & ~0x7f) != 0) {
+                    bytes[position++] = (byte) ((delta & 0x7f) | 0x80);
+                    delta >>>= 7;
+                }
+                bytes[position++] = (byte) delta;
+            }
+        }
+    }
+
+    /**
+     * Returns the number of bytes needed to encode the given difference
+     * @param delta
+     * @return
+     */
+    private static int getLength(int delta) {
+        int length = 1;
+        while ((delta & ~0x7f) != 0) {
+            delta >>>= 7;
+            length++;
+        }
+        return length;
+    }
+
+    @Override
+    public void add(int value) {
+        throw new UnsupportedOperationException("Set is immutable");
+    }
+
+    @Override
+    public boolean contains(int value) {
+        if (size == 0 || value < firsts[0] || value > max) {
+            return false;
+        }
+        int chunk = getChunk(value);
+        int row = firsts[chunk];
+        int position = positions[chunk];
+        int end = positions[chunk + 1];
+        while (row < value && position < end) {
+            int delta = 0;
+            int shift = 0;
+            byte b;
+            do {
+                b = bytes[position++];
+                delta |= (b & 0x7f) << shift;
+                shift += 7;
+            } while (b < 0);
+            row += delta;
+        }
+        return row == value;
+    }
+
+    @Override
+    public boolean containsSpecialRow(SUDA2Item[] items, SUDA2Item referenceItem, int[][] data) {
+        int[] buffer = new int[CHUNK_SIZE];
+        for (int chunk = 0; chunk < firsts.length; chunk++) {
+            int count = decode(chunk, buffer);
+            outer: for (int i = 0; i < count; i++) {
+                int[] row = data[buffer[i] - 1];
+                for (SUDA2Item item : items) {
+                    if (!item.isContained(row)) {
+                        continue outer;
+                    }
+                }
+                if (!referenceItem.isContained(row)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    @Override
+    boolean containsSpecialRow(SUDA2PackedRows rows, long[] pattern) {
+        int[] buffer = new int[CHUNK_SIZE];
+        for (int chunk = 0; chunk < firsts.length; chunk++) {
+            int count = decode(chunk, buffer);
+            for (int i = 0; i < count; i++) {
+                if (rows.isSpecialRow(buffer[i], pattern)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    @Override
+    long getMemory() {
+        return 96L + bytes.length + 8L * firsts.length;
+    }
+
+    @Override
+    public int intersectionSize(SUDA2IntSet other) {
+        if (size == 0 || other.size() == 0 || this.max < other.min() || other.max() < this.min()) {
+            return 0;
+        }
+        return intersect(other, null, Integer.MAX_VALUE);
+    }
+
+    @Override
+    public SUDA2IntSet intersectWith(SUDA2IntSet other) {
+
+        // No intersection
+        if (size == 0 || other.size() == 0 || this.max < other.min() || other.max() < this.min()) {
+            return new SUDA2IntSetJump();
+        }
+
+        // Collect and store
+        int[] elements = new int[Math.min(size, other.size())];
+        int count = intersect(other, elements, Integer.MAX_VALUE);
+        SUDA2IntSet result = count == 0 ? new SUDA2IntSetJump() : SUDA2IntSet.getInstance(count, elements[0], elements[count - 1]);
+        for (int i = 0; i < count; i++) {
+            result.add(elements[i]);
+        }
+        return result;
+    }
+
+    @Override
+    public boolean isBitSet() {
+        return false;
+    }
+
+    @Override
+    public boolean isSupportRowPresent(SUDA2IntSet other) {
+        if (size == 0 || other.size() == 0 || this.max < other.min() || other.max() < this.min()) {
+            return false;
+        }
+        return intersect(other, null, 2) == 1;
+    }
+
+    @Override
+    public int max() {
+        return max;
+    }
+
+    @Override
+    public int min() {
+        return size == 0 ? Integer.MAX_VALUE : firsts[0];
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public int[] toArray() {
+        int[] result = new int[size];
+        int[] buffer = new int[CHUNK_SIZE];
+        for (int chunk = 0; chunk < firsts.length; chunk++) {
+            int count = decode(chunk, buffer);
+            System.arraycopy(buffer, 0, result, chunk * CHUNK_SIZE, count);
+        }
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return "Size=" + size + " bytes=" + bytes.length + " firsts=" + Arrays.toString(firsts);
+    }
+
+    /**
+     * Decodes the given chunk into the buffer and returns the number of rows
+     * @param chunk
+     * @param buffer
+     * @return
+     */
+    private int decode(int chunk, int[] buffer) {
+        int row = firsts[chunk];
+        int position = positions[chunk];
+        int end = positions[chunk + 1];
+        int count = 0;
+        buffer[count++] = row;
+        while (position < end) {
+            int delta = 0;
+            int shift = 0;
+            byte b;
+            do {
+                b = bytes[position++];
+                delta |= (b & 0x7f) << shift;
+                shift += 7;
+            } while (b < 0);
+            row += delta;
+            buffer[count++] = row;
+        }
+        return count;
+    }
+
+    /**
+     * Returns the last chunk starting with a row less than or equal to the given value, 0 if there is none
+     * @param value
+     * @return
+     */
+    private int getChunk(int value) {
+        int index = Arrays.binarySearch(firsts, value);
+        return index >= 0 ? index : Math.max(0, -index - 2);
+    }
+
+    /**
+     * Intersects this set with the given set. Merges with other compressed sets and probes other sets.
+     * @param other
+     * @param result Array to which rows are added, may be null
+     * @param limit Stop when this number of rows has been found
+     * @return Number of rows found
+     */
+    private int intersect(SUDA2IntSet other, int[] result, int limit) {
+
+        // Prepare
+        int[] buffer = new int[CHUNK_SIZE];
+        int count = 0;
+        int max = Math.min(this.max, other.max());
+
+        // Probe
+        if (!(other instanceof SUDA2IntSetCompressed)) {
+            for (int chunk = getChunk(other.min()); chunk < firsts.length && firsts[chunk] <= max && count < limit; chunk++) {
+                int rows = decode(chunk, buffer);
+                for (int i = 0; i < rows && count < limit; i++) {
+                    if (other.contains(buffer[i])) {
+                        if (result != null) {
+                            result[count] = buffer[i];
+                        }
+                        count++;
+                    }
+                }
+            }
+            return count;
+        }
+
+        // Merge
+        SUDA2IntSetCompressed _other = (SUDA2IntSetCompressed) other;
+        int[] _buffer = new int[CHUNK_SIZE];
+        int _chunk = _other.getChunk(firsts[0]);
+        int _rows = _other.decode(_chunk, _buffer);
+        int _index = 0;
+        outer: for (int chunk = getChunk(_other.firsts[0]); chunk < firsts.length && firsts[chunk] <= max && count < limit; chunk++) {
+
+            // Skip chunks ending before the current row of the other set
+            if (chunk + 1 < firsts.length && firsts[chunk + 1] <= _buffer[_index]) {
+                continue;
+            }
+            int rows = decode(chunk, buffer);
+            for (int i = 0; i < rows && count < limit; i++) {
+                int row = buffer[i];
+
+                // Advance, skipping chunks ending before the row
+                while (_buffer[_index] < row) {
+                    if (++_index == _rows) {
+                        _chunk = Math.max(_chunk + 1, _other.getChunk(row));
+                        if (_chunk == _other.firsts.length) {
+                            break outer;
+                        }
+                        _rows = _other.decode(_chunk, _buffer);
+                        _index = 0;
+                    }
+                }
+                if (_buffer[_index] == row) {
+                    if (result != null) {
+                        result[count] = row;
+                    }
+                    count++;
+                }
+            }
+        }
+        return count;
+    }
+}
@@ -0,0 +1,278 @@
+/*
+ * SUDA2: An implementation of the SUDA2 algorithm for Java
+ * Copyright 2017 Fabian Prasser
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.linearbits.suda2;
+
+import java.util.Map;
+
+/**
+ * A set of rows, which is represented by the rows of a base set lacking from this set.
+ * The set is immutable. Minimum and maximum are those of the base set and thus
+ * bounds which are not necessarily tight. Rows are iterated by skipping the rows of
+ * the base set lacking from this set and are never retained, so that the set only 
+ * holds the difference. Intersections are materialized.
+ * 
+ * @author Fabian Prasser
+ */
+public class SUDA2IntSetDiff extends SUDA2IntSet {
+
+    /**
+     * Returns the rows of the first set which are not contained in the second set, or null
+     * if this would be all rows of the first set
+     * @param rows
+     * @param other
+     * @return
+     */
+    private static SUDA2IntSet getDifference(SUDA2IntSet rows, SUDA2IntSet other) {
+        
+        // Both are differences to the same set
+        int[] elements;
+        if (rows instanceof SUDA2IntSetDiff && other instanceof SUDA2IntSetDiff &&
+            ((SUDA2IntSetDiff) rows).base == ((SUDA2IntSetDiff) other).base) {
+            SUDA2IntSet diff = ((SUDA2IntSetDiff) rows).diff;
+            elements = ((SUDA2IntSetDiff) other).diff.toArray();
+            int size = 0;
+            for (int row : elements) {
+                if (!diff.contains(row)) {
+                    elements[size++] = row;
+                }
+            }
+            return size == rows.size() ? null : getInstance(elements, size);
+        }
+        
+        // Compare all rows
+        elements = rows.toArray();
+        int size = 0;
+        for (int row : elements) {
+            if (!other.contains(row)) {
+                elements[size++] = row;
+            }
+        }
+        return size == rows.size() ? null : getInstance(elements, size);
+    }
+
+    /**
+     * Returns the rows of the first set which are contained in the second set, or null if there
+     * are none. The rows are represented by the rows lacking from the first set if this is smaller.
+     * Both representations are built in a single scan over the first set.
+     * @param rows
+     * @param elements The rows of the first set, which are not modified
+     * @param other
+     * @return
+     */
+    static SUDA2IntSet getIntersection(SUDA2IntSet rows, int[] elements, SUDA2IntSet other) {
+        
+        // Both are differences to the same set, the difference is cheap to compute
+        if (rows instanceof SUDA2IntSetDiff && other instanceof SUDA2IntSetDiff &&
+            ((SUDA2IntSetDiff) rows).base == ((SUDA2IntSetDiff) other).base) {
+            SUDA2IntSet diff = getDifference(rows, other);
+            if (diff == null) {
+                return null;
+            } else if (diff.size() < rows.size() - diff.size()) {
+                return new SUDA2IntSetDiff(rows, diff);
+            }
+        }
+        
+        // Split all rows
+        int[] contained = new int[elements.length];
+        int[] lacking = new int[elements.length];
+        int size = 0;
+        int numLacking = 0;
+        for (int row : elements) {
+            if (other.contains(row)) {
+                contained[size++] = row;
+            } else {
+                lacking[numLacking++] = row;
+            }
+        }
+        if (size == 0) {
+            return null;
+        } else if (numLacking < size) {
+            return new SUDA2IntSetDiff(rows, getInstance(lacking, numLacking));
+        } else {
+            return getInstance(contained, size);
+        }
+    }
+
+    /**
+     * Returns a set containing the given prefix of the array
+     * @param elements
+     * @param size
+     * @return
+     */
+    private static SUDA2IntSet getInstance(int[] elements, int size) {
+        int min = Integer.MAX_VALUE;
+        int max = Integer.MIN_VALUE;
+        for (int i = 0; i < size; i++) {
+            min = Math.min(min, elements[i]);
+            max = Math.max(max, elements[i]);
+        }
+        SUDA2IntSet result = SUDA2IntSet.getInstance(size, min, max);
+        for (int i = 0; i < size; i++) {
+            result.add(elements[i]);
+        }
+        return result;
+    }
+
+    /** Base set */
+    private final SUDA2IntSet base;
+    /** Rows of the base set, which are not contained */
+    private final SUDA2IntSet diff;
+    /** Size */
+    private final int         size;
+
+    /**
+     * Creates a new instance
+     * @param base
+     * @param diff Must be a subset of base
+     */
+    public SUDA2IntSetDiff(SUDA2IntSet base, SUDA2IntSet diff) {
+        this.base = base;
+        this.diff = diff;
+        this.size = base.size() - diff.size();
+    }
+
+    @Override
+    public void add(int value) {
+        throw new UnsupportedOperationException("Set is immutable");
+    }
+
+    @Override
+    public boolean contains(int value) {
+        return !diff.contains(value) && base.contains(value);
+    }
+
+    @Override
+    public boolean containsSpecialRow(SUDA2Item[] items, SUDA2Item referenceItem, int[][] data) {
+        outer: for (int element : base.toArray()) {
+            if (diff.contains(element)) {
+                continue;
+            }
+            int[] row = data[element - 1];
+            for (SUDA2Item item : items) {
+                if (!item.isContained(row)) {
+                    continue outer;
+                }
+            }
+            if (!referenceItem.isContained(row)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    boolean containsSpecialRow(SUDA2PackedRows rows, long[] pattern) {
+        for (int row : base.toArray()) {
+            if (!diff.contains(row) && rows.isSpecialRow(row, pattern)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    long getMemory() {
+        return 32L + diff.getMemory();
+    }
+
+    @Override
+    public int intersectionSize(SUDA2IntSet other) {
+        // The difference is a subset of the base set
+        return base.intersectionSize(other) - diff.intersectionSize(other);
+    }
+
+    @Override
+    public SUDA2IntSet intersectWith(SUDA2IntSet other) {
+        int[] elements = base.toArray();
+        int size = 0;
+        for (int row : elements) {
+            if (!diff.contains(row) && other.contains(row)) {
+                elements[size++] = row;
+            }
+        }
+        return getInstance(elements, size);
+    }
+
+    @Override
+    public boolean isBitSet() {
+        return false;
+    }
+
+    @Override
+    public boolean isSupportRowPresent(SUDA2IntSet other) {
+        boolean supportRowFound = false;
+        for (int row : base.toArray()) {
+            if (!diff.contains(row) && other.contains(row)) {
+                if (supportRowFound) {
+                    return false;
+                }
+                supportRowFound = true;
+            }
+        }
+        return supportRowFound;
+    }
+
+    /**
+     * Returns the maximum of the base set, which is an upper bound that is not necessarily tight
+     * @return
+     */
+    @Override
+    SUDA2IntSet materialize(Map<SUDA2IntSet, SUDA2IntSet> copies) {
+        SUDA2IntSet base = this.base.materialize(copies);
+        SUDA2IntSet diff = this.diff.materialize(copies);
+        return base == this.base && diff == this.diff ? this : new SUDA2IntSetDiff(base, diff);
+    }
+
+    @Override
+    public int max() {
+        return base.max();
+    }
+
+    /**
+     * Returns the minimum of the base set, which is a lower bound that is not necessarily tight
+     * @return
+     */
+    @Override
+    public int min() {
+        return base.min();
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public int[] toArray() {
+        int[] elements = base.toArray();
+        int[] result = new int[size];
+        int index = 0;
+        for (int row : elements) {
+            if (!diff.contains(row)) {
+                result[index++] = row;
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder();
+        builder.append("Diff(").append(base.size()).append(" - ").append(diff.toString()).append(")");
+        return builder.toString();
+    }
+}
@@ -127,6 +127,44 @@ public class SUDA2IntSetHash extends SUDA2IntSet {
         return false;
     }
     
+    @Override
+    boolean containsSpecialRow(SUDA2PackedRows rows, long[] pattern) {
+        for (int i = 0; i < buckets.length; i++) {
+            if (buckets[i] != 0 && rows.isSpecialRow(buckets[i], pattern)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    long getMemory() {
+        return 48L + 4L * buckets.length;
+    }
+
+    @Override
+    public int intersectionSize(SUDA2IntSet other) {
+
+        // No intersection
+        if (size == 0 || this.max < other.min() || other.max() < this.min) {
+            return 0;
+        }
+
+        // Intersect ranges
+        int min = Math.max(this.min,  other.min());
+        int max = Math.min(this.max,  other.max());
+        
+        // Count
+        int count = 0;
+        for (int i = 0; i < buckets.length; i++) {
+            int row = buckets[i];
+            if (row != 0 && row >= min && row <= max && other.contains(row)) {
+                count++;
+            }
+        }
+        return count;
+    }
+
     @Override
     public SUDA2IntSet intersectWith(SUDA2IntSet other) {
 
@@ -169,6 +207,9 @@ public class SUDA2IntSetHash extends SUDA2IntSet {
             // If it saves space, use a bit set
             if ((capacity << 5) >= max - min) {
                 result = new SUDA2IntSetBits(min, max);
+            } else if (((long) capacity << 11) >= max - min) {
+                // Or a two-level bit set, if the summary saves space
+                result = new SUDA2IntSetBlocks(min, max);
             } else {
                 // Otherwise: fall back to hash set
                 result = new SUDA2IntSetHash();                
@@ -247,6 +288,18 @@ public class SUDA2IntSetHash extends SUDA2IntSet {
         return size;
     }
 
+    @Override
+    public int[] toArray() {
+        int[] result = new int[size];
+        int index = 0;
+        for (int i = 0; i < buckets.length; i++) {
+            if (buckets[i] != 0) {
+                result[index++] = buckets[i];
+            }
+        }
+        return result;
+    }
+
     @Override
     public String toString() {
         return "Size=" + size + " array=" + Arrays.toString(buckets);
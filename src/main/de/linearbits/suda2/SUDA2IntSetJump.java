@@ -115,6 +115,48 @@ public class SUDA2IntSetJump extends SUDA2IntSet {
         return false;
     }
 
+    @Override
+    boolean containsSpecialRow(SUDA2PackedRows rows, long[] pattern) {
+        switch(size) {
+        case 8: if (rows.isSpecialRow(int7, pattern)) { return true; }
+        case 7: if (rows.isSpecialRow(int6, pattern)) { return true; }
+        case 6: if (rows.isSpecialRow(int5, pattern)) { return true; }
+        case 5: if (rows.isSpecialRow(int4, pattern)) { return true; }
+        case 4: if (rows.isSpecialRow(int3, pattern)) { return true; }
+        case 3: if (rows.isSpecialRow(int2, pattern)) { return true; }
+        case 2: if (rows.isSpecialRow(int1, pattern)) { return true; }
+        case 1: if (rows.isSpecialRow(int0, pattern)) { return true; }
+        }
+        return false;
+    }
+
+    @Override
+    long getMemory() {
+        return 56L;
+    }
+
+    @Override
+    public int intersectionSize(SUDA2IntSet other) {
+
+        // No intersection
+        if (size == 0 || this.max < other.min() || other.max() < this.min) {
+            return 0;
+        }
+
+        int rows = 0;
+        switch (size) {
+        case 8: rows += other.contains(int7) ? 1 : 0;
+        case 7: rows += other.contains(int6) ? 1 : 0;
+        case 6: rows += other.contains(int5) ? 1 : 0;
+        case 5: rows += other.contains(int4) ? 1 : 0;
+        case 4: rows += other.contains(int3) ? 1 : 0;
+        case 3: rows += other.contains(int2) ? 1 : 0;
+        case 2: rows += other.contains(int1) ? 1 : 0;
+        case 1: rows += other.contains(int0) ? 1 : 0;
+        }
+        return rows;
+    }
+
     @Override
     public SUDA2IntSet intersectWith(SUDA2IntSet other) {
 
@@ -197,6 +239,22 @@ public class SUDA2IntSetJump extends SUDA2IntSet {
         return size;
     }
 
+    @Override
+    public int[] toArray() {
+        int[] result = new int[size];
+        switch (size) {
+        case 8: result[7] = int7;
+        case 7: result[6] = int6;
+        case 6: result[5] = int5;
+        case 5: result[4] = int4;
+        case 4: result[3] = int3;
+        case 3: result[2] = int2;
+        case 2: result[1] = int1;
+        case 1: result[0] = int0;
+        }
+        return result;
+    }
+
     @Override
     public String toString() {
         return "Size=" + size + " elements=" + int0 + ", " + int1 + ", " + int2 + ", " + int3 + ", " + int4 + ", " + int5 + ", " + int6 + ", " + int7;
@@ -0,0 +1,216 @@
+/*
+ * SUDA2: An implementation of the SUDA2 algorithm for Java
+ * Copyright 2017 Fabian Prasser
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.linearbits.suda2;
+
+import java.nio.IntBuffer;
+import java.util.Map;
+
+/**
+ * A set of rows, which have been written to a file in ascending order and are read from
+ * a mapping of the file. The set is immutable and holds almost no memory on the heap.
+ * Lookups are performed with binary search, intersections probe the other set.
+ *
+ * @author Fabian Prasser
+ */
+public class SUDA2IntSetMapped extends SUDA2IntSet {
+
+    /** Mapped rows */
+    private final IntBuffer buffer;
+    /** Index of the first row in the buffer */
+    private final int       offset;
+    /** Size */
+    private final int       size;
+
+    /**
+     * Creates a new instance
+     * @param buffer
+     * @param offset
+     * @param size
+     */
+    SUDA2IntSetMapped(IntBuffer buffer, int offset, int size) {
+        this.buffer = buffer;
+        this.offset = offset;
+        this.size = size;
+    }
+
+    @Override
+    public void add(int value) {
+        throw new UnsupportedOperationException("Set is immutable");
+    }
+
+    @Override
+    public boolean contains(int value) {
+        int low = offset;
+        int high = offset + size - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int row = buffer.get(mid);
+            if (row < value) {
+                low = mid + 1;
+            } else if (row > value) {
+                high = mid - 1;
+            } else {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public boolean containsSpecialRow(SUDA2Item[] items, SUDA2Item referenceItem, int[][] data) {
+        outer: for (int i = offset; i < offset + size; i++) {
+            int[] row = data[buffer.get(i) - 1];
+            for (SUDA2Item item : items) {
+                if (!item.isContained(row)) {
+                    continue outer;
+                }
+            }
+            if (!referenceItem.isContained(row)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    boolean containsSpecialRow(SUDA2PackedRows rows, long[] pattern) {
+        for (int i = offset; i < offset + size; i++) {
+            if (rows.isSpecialRow(buffer.get(i), pattern)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    long getMemory() {
+        return 40L;
+    }
+
+    @Override
+    public int intersectionSize(SUDA2IntSet other) {
+        return intersect(other, null, Integer.MAX_VALUE);
+    }
+
+    @Override
+    public SUDA2IntSet intersectWith(SUDA2IntSet other) {
+        int[] elements = new int[Math.min(size, other.size())];
+        int count = intersect(other, elements, Integer.MAX_VALUE);
+        SUDA2IntSet result = count == 0 ? new SUDA2IntSetJump() : SUDA2IntSet.getInstance(count, elements[0], elements[count - 1]);
+        for (int i = 0; i < count; i++) {
+            result.add(elements[i]);
+        }
+        return result;
+    }
+
+    @Override
+    SUDA2IntSet materialize(Map<SUDA2IntSet, SUDA2IntSet> copies) {
+        SUDA2IntSet result = copies.get(this);
+        if (result == null) {
+            result = size == 0 ? new SUDA2IntSetJump() : SUDA2IntSet.getInstance(size, min(), max());
+            for (int i = offset; i < offset + size; i++) {
+                result.add(buffer.get(i));
+            }
+            copies.put(this, result);
+        }
+        return result;
+    }
+
+    @Override
+    public boolean isBitSet() {
+        return false;
+    }
+
+    @Override
+    public boolean isSupportRowPresent(SUDA2IntSet other) {
+        return intersect(other, null, 2) == 1;
+    }
+
+    @Override
+    public int max() {
+        return size == 0 ? Integer.MIN_VALUE : buffer.get(offset + size - 1);
+    }
+
+    @Override
+    public int min() {
+        return size == 0 ? Integer.MAX_VALUE : buffer.get(offset);
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public int[] toArray() {
+        int[] result = new int[size];
+        for (int i = 0; i < size; i++) {
+            result[i] = buffer.get(offset + i);
+        }
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return "Size=" + size + " offset=" + offset;
+    }
+
+    /**
+     * Probes the other set with all rows of this set within its range
+     * @param other
+     * @param result Array to which rows are added, may be null
+     * @param limit Stop when this number of rows has been found
+     * @return Number of rows found
+     */
+    private int intersect(SUDA2IntSet other, int[] result, int limit) {
+
+        // No intersection
+        if (size == 0 || other.size() == 0 || max() < other.min() || other.max() < min()) {
+            return 0;
+        }
+
+        // Find first row within the range of the other set
+        int min = other.min();
+        int max = other.max();
+        int low = offset;
+        int high = offset + size;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (buffer.get(mid) < min) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+
+        // Probe
+        int count = 0;
+        for (int i = low; i < offset + size && count < limit; i++) {
+            int row = buffer.get(i);
+            if (row > max) {
+                break;
+            }
+            if (other.contains(row)) {
+                if (result != null) {
+                    result[count] = row;
+                }
+                count++;
+            }
+        }
+        return count;
+    }
+}
@@ -41,6 +41,10 @@ public class SUDA2Item extends Timeable {
     private final int         value;
     /** Support rows */
     private final SUDA2IntSet rows;
+    /** Rows representing more than one record, null if each row is a single record */
+    private SUDA2IntSet       duplicates;
+    /** Support, if rows represent equivalence classes */
+    private int               support = -1;
 
     /**
      * Creates a new item
@@ -69,12 +73,26 @@ public class SUDA2Item extends Timeable {
         this.rows = rows;
     }
 
+    /**
+     * Clone constructor
+     * @param column
+     * @param value
+     * @param id
+     * @param rows
+     * @param duplicates
+     */
+    SUDA2Item(int column, int value, long id, SUDA2IntSet rows, SUDA2IntSet duplicates) {
+        this(column, value, id, rows);
+        this.duplicates = duplicates;
+    }
+
     /**
      * Adds a row
      * @param row
      */
     public void addRow(int row) {
         this.rows.add(row);
+        this.support = -1;
     }
 
     @Override
@@ -101,8 +119,15 @@ public class SUDA2Item extends Timeable {
         SUDA2IntSet rows2 = size1 < size2 ? otherRows : this.rows;
         
         // Check if they intersect with exactly one support row
-        // Check whether the item is a 1-MSU
-        return rows1.isSupportRowPresent(rows2) ? this : null;
+        if (!rows1.isSupportRowPresent(rows2)) {
+            return null;
+        }
+        
+        // Check whether the item is a 1-MSU, i.e. the row is a single record
+        if (duplicates != null && duplicates.contains(rows1.intersectWith(rows2).min())) {
+            return null;
+        }
+        return this;
     }
 
     /**
@@ -142,7 +167,16 @@ public class SUDA2Item extends Timeable {
         endTiming(METHOD_PROJECTION);
 
         // Return
-        return rows.size() == 0 ? null : new SUDA2Item(this.column, this.value, this.id, rows);
+        return rows.size() == 0 ? null : new SUDA2Item(this.column, this.value, this.id, rows, this.duplicates);
+    }
+
+    /**
+     * Returns an instance of this item with the given rows, which must be a subset of its rows
+     * @param rows
+     * @return
+     */
+    SUDA2Item getInstance(SUDA2IntSet rows) {
+        return new SUDA2Item(this.column, this.value, this.id, rows, this.duplicates);
     }
 
     /**
@@ -154,11 +188,19 @@ public class SUDA2Item extends Timeable {
     }
 
     /**
-     * Returns the support
+     * Returns the support. If rows represent equivalence classes, rows representing
+     * more than one record are counted twice, which is sufficient to distinguish
+     * unique from non-unique item sets.
      * @return
      */
     public int getSupport() {
-        return this.rows.size();
+        if (this.duplicates == null) {
+            return this.rows.size();
+        }
+        if (this.support == -1) {
+            this.support = this.rows.size() + this.rows.intersectionSize(this.duplicates);
+        }
+        return this.support;
     }
 
     /**
@@ -179,6 +221,15 @@ public class SUDA2Item extends Timeable {
         return result;
     }
 
+    /**
+     * Sets the rows representing more than one record
+     * @param duplicates
+     */
+    void setDuplicates(SUDA2IntSet duplicates) {
+        this.duplicates = duplicates;
+        this.support = -1;
+    }
+
     /**
      * Returns whether the item is contained in a given row
      * @param row
@@ -0,0 +1,39 @@
+/*
+ * SUDA2: An implementation of the SUDA2 algorithm for Java
+ * Copyright 2017 Fabian Prasser
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.linearbits.suda2;
+
+/**
+ * Policies for ordering items with equal support. Items are processed in ascending order of
+ * support, and the order among items with equal support determines which candidates are
+ * pruned early. All policies find the same keys.
+ * 
+ * @author Fabian Prasser
+ */
+public enum SUDA2ItemOrder {
+
+    /** Items with equal support remain in the order in which they are stored */
+    REGISTRATION,
+    /**
+     * Items with equal support are ordered by their ids, i.e. by column and, within a column, by the
+     * order in which values first appear in the data. Items created by merging follow all other items.
+     */
+    ITEM_ID,
+    /** Items with equal support are ordered by the number of distinct values of their columns, then by id */
+    COLUMN_CARDINALITY,
+    /** Items with equal support are ordered by the entropy of their columns, then by id */
+    COLUMN_ENTROPY
+}
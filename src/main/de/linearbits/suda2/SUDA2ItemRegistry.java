@@ -19,7 +19,9 @@ package de.linearbits.suda2;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Comparator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * A set of items
@@ -102,12 +104,83 @@ public class SUDA2ItemRegistry {
         return values[slot];
     }
 
+    /**
+     * Returns a registry for a generalized version of the table. For each column, the given
+     * mapping maps the values of this registry to generalized values, or is null if the
+     * column is not generalized. Items which are mapped to the same value are merged by
+     * building the union of their rows, all other items are shared with this registry.
+     * @param mappings
+     * @return
+     */
+    public SUDA2ItemRegistry getGeneralizedRegistry(List<Map<Integer, Integer>> mappings) {
+
+        // Group items by generalized value
+        SUDA2ItemRegistry result = new SUDA2ItemRegistry();
+        Map<Long, List<SUDA2Item>> groups = new LinkedHashMap<>();
+        long id = 0;
+        for (SUDA2Item item : values) {
+            if (item != null) {
+                id = Math.max(id, item.getId() + 1);
+                Map<Integer, Integer> mapping = item.getColumn() < mappings.size() ? mappings.get(item.getColumn()) : null;
+                if (mapping == null) {
+                    result.add(item);
+                } else {
+                    Integer value = mapping.get(item.getValue());
+                    if (value == null) {
+                        throw new IllegalArgumentException("No generalization for value " + item.getValue() + " in column " + item.getColumn());
+                    }
+                    long key = SUDA2Item.getId(item.getColumn(), value);
+                    List<SUDA2Item> group = groups.get(key);
+                    if (group == null) {
+                        group = new ArrayList<>();
+                        groups.put(key, group);
+                    }
+                    group.add(item);
+                }
+            }
+        }
+
+        // Merge, assigning ids which are not used by any item of this registry
+        for (List<SUDA2Item> group : groups.values()) {
+            SUDA2Item first = group.get(0);
+            int value = mappings.get(first.getColumn()).get(first.getValue());
+            SUDA2IntSet rows = group.size() == 1 ? first.getRows() : getUnion(group);
+            result.add(new SUDA2Item(first.getColumn(), value, id++, rows));
+        }
+
+        // Return
+        return result;
+    }
+
+    /**
+     * Returns an estimate of the number of bytes held by this registry
+     * @return
+     */
+    long getMemory() {
+        long bytes = 32L + 8L * values.length;
+        for (SUDA2Item item : values) {
+            if (item != null) {
+                bytes += 48L + item.getRows().getMemory();
+            }
+        }
+        return bytes;
+    }
+
     /**
      * Returns a list containing items sorted by rank
      * @param items
      * @return
      */
     public List<SUDA2Item> getSortedItemList() {
+        return getSortedItemList(null);
+    }
+
+    /**
+     * Returns a list containing items sorted by rank, ordering items with equal support with the given comparator
+     * @param ties May be null
+     * @return
+     */
+    List<SUDA2Item> getSortedItemList(final Comparator<SUDA2Item> ties) {
 
         // Create list and sort by support
         List<SUDA2Item> list = new ArrayList<SUDA2Item>();
@@ -120,7 +193,8 @@ public class SUDA2ItemRegistry {
             @Override
             public int compare(SUDA2Item o1, SUDA2Item o2) {
                 return o1.getSupport() < o2.getSupport() ? -1 :
-                       o1.getSupport() > o2.getSupport() ? +1 : 0;
+                       o1.getSupport() > o2.getSupport() ? +1 : 
+                       ties == null ? 0 : ties.compare(o1, o2);
             }
         });
         
@@ -146,13 +220,14 @@ public class SUDA2ItemRegistry {
             slot = (slot + 1) & mask;
         }
         
-        // Add
-        if (values[slot] == null) {
-            values[slot] = new SUDA2Item(column, value, key);        
+        // Return existing
+        if (values[slot] != null) {
+            return values[slot];
         }
         
-        // Store
-        SUDA2Item result =  values[slot];
+        // Add
+        SUDA2Item result = new SUDA2Item(column, value, key);
+        values[slot] = result;
 
         // Rehash
         if (++size == threshold) {
@@ -163,6 +238,36 @@ public class SUDA2ItemRegistry {
         return result;
     }
     
+    /**
+     * Returns the union of the (disjoint) rows of the given items
+     * @param items
+     * @return
+     */
+    private SUDA2IntSet getUnion(List<SUDA2Item> items) {
+
+        // Determine range
+        int size = 0;
+        int min = Integer.MAX_VALUE;
+        int max = Integer.MIN_VALUE;
+        for (SUDA2Item item : items) {
+            SUDA2IntSet rows = item.getRows();
+            if (rows.size() != 0) {
+                size += rows.size();
+                min = Math.min(min, rows.min());
+                max = Math.max(max, rows.max());
+            }
+        }
+
+        // Add
+        SUDA2IntSet result = SUDA2IntSet.getInstance(size, min, max);
+        for (SUDA2Item item : items) {
+            for (int row : item.getRows().toArray()) {
+                result.add(row);
+            }
+        }
+        return result;
+    }
+
     /**
      * Murmur hash
      * @param value
@@ -0,0 +1,181 @@
+/*
+ * SUDA2: An implementation of the SUDA2 algorithm for Java
+ * Copyright 2017 Fabian Prasser
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.linearbits.suda2;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * A set of items, in which the values of each column are remapped to dense ids when the
+ * registry is created. The id of an item is the offset of its column plus the id of its
+ * value, which is used as an index into the array of items.
+ * 
+ * @author Fabian Prasser
+ */
+class SUDA2ItemRegistryDense extends SUDA2ItemRegistry {
+
+    /** Maximal range of values in a column, for which ids are looked up in an array */
+    private static final int              MAX_RANGE = 1 << 20;
+
+    /** Offset of the ids of each column */
+    private final int[]                   offsets;
+    /** Minimal value of each column */
+    private final int[]                   minimums;
+    /** Ids of the values of each column, indexed by value minus minimum, null if the range is too large */
+    private final int[][]                 ids;
+    /** Ids of the values of each column, if the range is too large */
+    private final Map<Integer, Integer>[] maps;
+
+    /**
+     * Creates a new instance for the given data
+     * @param data
+     * @param columns
+     */
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    SUDA2ItemRegistryDense(int[][] data, int columns) {
+        
+        // Prepare
+        this.offsets = new int[columns];
+        this.minimums = new int[columns];
+        this.ids = new int[columns][];
+        this.maps = new Map[columns];
+        
+        // Remap each column
+        int offset = 0;
+        for (int column = 0; column < columns; column++) {
+            
+            // Determine range
+            int min = Integer.MAX_VALUE;
+            int max = Integer.MIN_VALUE;
+            for (int[] row : data) {
+                min = Math.min(min, row[column]);
+                max = Math.max(max, row[column]);
+            }
+            
+            // Assign ids in order of appearance
+            int size = 0;
+            if ((long) max - (long) min < MAX_RANGE) {
+                int[] _ids = new int[max - min + 1];
+                for (int[] row : data) {
+                    int value = row[column] - min;
+                    if (_ids[value] == 0) {
+                        _ids[value] = ++size;
+                    }
+                }
+                for (int i = 0; i < _ids.length; i++) {
+                    _ids[i]--;
+                }
+                this.ids[column] = _ids;
+            } else {
+                Map<Integer, Integer> map = new HashMap<>();
+                for (int[] row : data) {
+                    if (!map.containsKey(row[column])) {
+                        map.put(row[column], size++);
+                    }
+                }
+                this.maps[column] = map;
+            }
+            this.offsets[column] = offset;
+            this.minimums[column] = min;
+            offset += size;
+        }
+        this.values = new SUDA2Item[offset];
+    }
+
+    /**
+     * Creates an empty instance sharing the ids of the given instance
+     * @param other
+     */
+    SUDA2ItemRegistryDense(SUDA2ItemRegistryDense other) {
+        this.offsets = other.offsets;
+        this.minimums = other.minimums;
+        this.ids = other.ids;
+        this.maps = other.maps;
+        this.values = new SUDA2Item[other.values.length];
+    }
+
+    /**
+     * Returns the id of the item with the given value in the given column. Throws an exception,
+     * if the value is not contained in the column of the data the ids have been assigned for.
+     * @param column
+     * @param value
+     * @return
+     */
+    int getIndex(int column, int value) {
+        int id = -1;
+        if (ids[column] != null) {
+            int index = value - minimums[column];
+            if (index >= 0 && index < ids[column].length) {
+                id = ids[column][index];
+            }
+        } else {
+            Integer _id = maps[column].get(value);
+            if (_id != null) {
+                id = _id;
+            }
+        }
+        if (id < 0) {
+            throw new IllegalArgumentException("Value " + value + " of column " + column + " is unknown");
+        }
+        return offsets[column] + id;
+    }
+
+    /**
+     * Returns the number of values in the given column
+     * @param column
+     * @return
+     */
+    int getNumValues(int column) {
+        return (column + 1 < offsets.length ? offsets[column + 1] : values.length) - offsets[column];
+    }
+
+    /**
+     * Returns the id of the given value within the given column
+     * @param column
+     * @param value
+     * @return
+     */
+    int getValueId(int column, int value) {
+        return getIndex(column, value) - offsets[column];
+    }
+
+    @Override
+    public void add(SUDA2Item item) {
+        int index = (int) item.getId();
+        if (values[index] == null) {
+            size++;
+        }
+        values[index] = item;
+    }
+
+    @Override
+    public SUDA2Item get(long key) {
+        return key >= 0 && key < values.length ? values[(int) key] : null;
+    }
+
+    @Override
+    public SUDA2Item register(int column, int value) {
+        int index = getIndex(column, value);
+        SUDA2Item result = values[index];
+        if (result == null) {
+            result = new SUDA2Item(column, value, index);
+            values[index] = result;
+            size++;
+        }
+        return result;
+    }
+}
@@ -75,6 +75,16 @@ public class SUDA2ItemSet {
         }
     }
     
+    /**
+     * Replaces the item at the given index, in reverse order
+     * 
+     * @param index
+     * @param item
+     */
+    void set(int index, SUDA2Item item) {
+        this.items[size - 1 - index] = item;
+    }
+
     /**
      * Returns the size of the set
      * @return
@@ -0,0 +1,316 @@
+/*
+ * SUDA2: An implementation of the SUDA2 algorithm for Java
+ * Copyright 2017 Fabian Prasser
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.linearbits.suda2;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Provides instances of SUDA2 for generalized versions of a dataset. The items of a
+ * generalized dataset are derived from the items of a less generalized dataset by
+ * merging the rows of all items which are mapped to the same value, instead of
+ * registering all cells again. Derived states are cached by generalization vector.
+ *
+ * @author Fabian Prasser
+ */
+public class SUDA2Lattice {
+
+    /**
+     * Initial state for a generalization vector
+     *
+     * @author Fabian Prasser
+     */
+    private static class State {
+
+        /** Generalization vector */
+        private final int[]             generalization;
+        /** Generalized data */
+        private final int[][]           data;
+        /** Items */
+        private final SUDA2ItemRegistry registry;
+        /** Number of unique records */
+        private final int               numUniqueRecords;
+        /** Number of duplicate records */
+        private final int               numDuplicateRecords;
+
+        /**
+         * Creates a new instance
+         * @param generalization
+         * @param data
+         * @param registry
+         * @param numUniqueRecords
+         * @param numDuplicateRecords
+         */
+        private State(int[] generalization, int[][] data, SUDA2ItemRegistry registry, int numUniqueRecords, int numDuplicateRecords) {
+            this.generalization = generalization;
+            this.data = data;
+            this.registry = registry;
+            this.numUniqueRecords = numUniqueRecords;
+            this.numDuplicateRecords = numDuplicateRecords;
+        }
+    }
+
+    /**
+     * Key of a cache entry
+     *
+     * @author Fabian Prasser
+     */
+    private static final class Key {
+
+        /** Generalization vector */
+        private final int[] generalization;
+
+        /**
+         * Creates a new instance
+         * @param generalization
+         */
+        private Key(int[] generalization) {
+            this.generalization = generalization;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            return Arrays.equals(generalization, ((Key) obj).generalization);
+        }
+
+        @Override
+        public int hashCode() {
+            return Arrays.hashCode(generalization);
+        }
+    }
+
+    /** The data */
+    private final int[][]              data;
+    /** The hierarchies, indexed by column, value and level */
+    private final int[][][]            hierarchies;
+    /** Number of columns */
+    private final int                  columns;
+    /** Maximal number of cached states, excluding the state of the original data */
+    private int                        cacheSize = 16;
+    /** State of the original data */
+    private State                      root;
+    /** Cached states in access order */
+    private final LinkedHashMap<Key, State> states = new LinkedHashMap<Key, State>(16, 0.75f, true);
+
+    /**
+     * Creates a new instance. The values in each column must be indices into the according
+     * hierarchy, which maps each value to its generalization on each level. Level 0
+     * must represent the value itself.
+     *
+     * @param data
+     * @param hierarchies Indexed by column, value and level
+     */
+    public SUDA2Lattice(int[][] data, int[][][] hierarchies) {
+        if (data == null || (data.length > 0 && data[0] == null)) {
+            throw new NullPointerException("Data must not be null");
+        }
+        this.data = data;
+        this.columns = data.length == 0 ? 0 : data[0].length;
+        if (hierarchies == null || hierarchies.length != columns) {
+            throw new IllegalArgumentException("A hierarchy must be specified for each column");
+        }
+        this.hierarchies = hierarchies;
+    }
+
+    /**
+     * Returns an instance of SUDA2 for the data generalized with the given vector
+     * @param generalization Level per column
+     * @return
+     */
+    public SUDA2 getInstance(int[] generalization) {
+        check(generalization);
+        State state = getState(generalization.clone());
+        return new SUDA2(state.data, columns, state.registry, state.numUniqueRecords, state.numDuplicateRecords);
+    }
+
+    /**
+     * Sets the maximal number of generalized states which are retained. Defaults to 16.
+     * @param size
+     */
+    public void setCacheSize(int size) {
+        if (size < 0) {
+            throw new IllegalArgumentException("Size of cache must not be negative");
+        }
+        this.cacheSize = size;
+        this.evict();
+    }
+
+    /**
+     * Checks a generalization vector
+     * @param generalization
+     */
+    private void check(int[] generalization) {
+        if (generalization == null || generalization.length != columns) {
+            throw new IllegalArgumentException("Generalization vector must contain one level per column");
+        }
+        for (int column = 0; column < columns; column++) {
+            int level = generalization[column];
+            if (level < 0 || (hierarchies[column].length > 0 && level >= hierarchies[column][0].length)) {
+                throw new IllegalArgumentException("Invalid level " + level + " for column " + column);
+            }
+        }
+    }
+
+    /**
+     * Evicts states exceeding the size of the cache
+     */
+    private void evict() {
+        while (states.size() > cacheSize) {
+            states.remove(states.keySet().iterator().next());
+        }
+    }
+
+    /**
+     * Returns the data generalized with the given vector
+     * @param generalization
+     * @return
+     */
+    private int[][] getGeneralizedData(int[] generalization) {
+        int[][] result = new int[data.length][];
+        for (int row = 0; row < data.length; row++) {
+            int[] record = new int[columns];
+            for (int column = 0; column < columns; column++) {
+                record[column] = hierarchies[column][data[row][column]][generalization[column]];
+            }
+            result[row] = record;
+        }
+        return result;
+    }
+
+    /**
+     * Returns the mapping from values on the first level to values on the second level
+     * of the hierarchy for the given column
+     * @param column
+     * @param from
+     * @param to
+     * @return
+     */
+    private Map<Integer, Integer> getMapping(int column, int from, int to) {
+        Map<Integer, Integer> mapping = new HashMap<>();
+        for (int[] levels : hierarchies[column]) {
+            Integer previous = mapping.put(levels[from], levels[to]);
+            if (previous != null && previous != levels[to]) {
+                throw new IllegalArgumentException("Hierarchy of column " + column + " is not monotonic");
+            }
+        }
+        return mapping;
+    }
+
+    /**
+     * Returns the state of the original data
+     * @return
+     */
+    private State getRoot() {
+
+        // Already done
+        if (this.root != null) {
+            return this.root;
+        }
+
+        // Collect all items and their support rows
+        SUDA2ItemRegistry registry = new SUDA2ItemRegistryDense(data, columns);
+        SUDA2Groupify groupify = new SUDA2Groupify(data.length);
+        int index = 1; // Value 0 is reserved for empty entries in SUDA2IntSet
+        for (int[] row : data) {
+            if (!groupify.canBeIgnored(row)) {
+                for (int column = 0; column < columns; column++) {
+                    registry.register(column, row[column]).addRow(index);
+                }
+            }
+            index++;
+        }
+        this.root = new State(new int[columns], data, registry, groupify.getNumUniqueRecords(), groupify.getNumDuplicateRecords());
+        return this.root;
+    }
+
+    /**
+     * Returns the state for the given generalization vector, derived from the most
+     * specific state available which is a specialization of the vector
+     * @param generalization
+     * @return
+     */
+    private State getState(int[] generalization) {
+
+        // Probe
+        Key key = new Key(generalization);
+        State state = states.get(key);
+        if (state != null) {
+            return state;
+        }
+
+        // Find most specific predecessor
+        State predecessor = getRoot();
+        if (Arrays.equals(predecessor.generalization, generalization)) {
+            return predecessor;
+        }
+        int bestDistance = getDistance(predecessor.generalization, generalization);
+        for (State candidate : states.values()) {
+            int distance = getDistance(candidate.generalization, generalization);
+            if (distance >= 0 && distance < bestDistance) {
+                predecessor = candidate;
+                bestDistance = distance;
+            }
+        }
+
+        // Derive items
+        List<Map<Integer, Integer>> mappings = new ArrayList<>();
+        for (int column = 0; column < columns; column++) {
+            int from = predecessor.generalization[column];
+            int to = generalization[column];
+            mappings.add(from == to ? null : getMapping(column, from, to));
+        }
+        SUDA2ItemRegistry registry = predecessor.registry.getGeneralizedRegistry(mappings);
+
+        // Rows which became duplicates are retained, because ignoring them is only an optimization
+        int[][] data = getGeneralizedData(generalization);
+        SUDA2Groupify groupify = new SUDA2Groupify(data.length);
+        for (int[] row : data) {
+            groupify.canBeIgnored(row);
+        }
+
+        // Store
+        state = new State(generalization, data, registry, groupify.getNumUniqueRecords(), groupify.getNumDuplicateRecords());
+        if (cacheSize > 0) {
+            states.put(key, state);
+            evict();
+        }
+        return state;
+    }
+
+    /**
+     * Returns the sum of the differences between the levels, if the first vector is a
+     * specialization of the second vector, -1 otherwise
+     * @param specialization
+     * @param generalization
+     * @return
+     */
+    private int getDistance(int[] specialization, int[] generalization) {
+        int distance = 0;
+        for (int column = 0; column < columns; column++) {
+            int difference = generalization[column] - specialization[column];
+            if (difference < 0) {
+                return -1;
+            }
+            distance += difference;
+        }
+        return distance;
+    }
+}
@@ -51,13 +51,13 @@ public abstract class SUDA2ListenerKey extends SUDA2Result {
         }
         int row = temp.getRows().min();
         int size = set.size() + 1;
-        keyFound(row - 1, size);
+        keyFound(getRow(row - 1), size);
     }
 
     @Override
     void registerKey(SUDA2ItemSet set) {
         int row = set.get(0).getRows().min();
         int size = set.size();
-        keyFound(row - 1, size);
+        keyFound(getRow(row - 1), size);
     }
 }
@@ -74,7 +74,7 @@ public abstract class SUDA2ListenerMSU extends SUDA2ListenerKey {
         int row = temp.getRows().min();
         
         // Signal
-        keyFound(row - 1, result, set.size() + 1);
+        keyFound(getRow(row - 1), result, set.size() + 1);
     }
 
     @Override
@@ -90,6 +90,6 @@ public abstract class SUDA2ListenerMSU extends SUDA2ListenerKey {
         }
         
         // Signal
-        keyFound(row - 1, result, size);
+        keyFound(getRow(row - 1), result, size);
     }
 }
@@ -55,6 +55,14 @@ public abstract class SUDA2ListenerScore extends SUDA2ListenerKey {
      */
     public abstract void scoreFound(int row, int size, double score);
 
+    /**
+     * Returns whether scores are calculated analogously to sdcMicro
+     * @return
+     */
+    boolean isSdcMicroScores() {
+        return this.sdcMicroScores;
+    }
+
     @Override
     void init(int columns, int maxK, int numUniqueRecords, int numDuplicateRecords) {
         if (sdcMicroScores) {
@@ -0,0 +1,151 @@
+/*
+ * SUDA2: An implementation of the SUDA2 algorithm for Java
+ * Copyright 2017 Fabian Prasser
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.linearbits.suda2;
+
+/**
+ * Stores each record in one or two words, in which each column occupies as many bits as
+ * needed for the dense ids of its values. Whether a row is the special row for a set of
+ * candidate items and a reference item can then be checked by masking and comparing words.
+ * A pattern consists of a mask and a value per word for the candidate items, followed by
+ * a mask and a value per word for the reference item.
+ * 
+ * @author Fabian Prasser
+ */
+class SUDA2PackedRows {
+
+    /** Maximal number of words per record */
+    private static final int MAX_WORDS = 2;
+
+    /**
+     * Returns packed rows for the given data, or null if records do not fit into the
+     * maximal number of words
+     * @param data
+     * @param columns
+     * @param registry
+     * @return
+     */
+    static SUDA2PackedRows create(int[][] data, int columns, SUDA2ItemRegistryDense registry) {
+        
+        // Assign bits, columns do not span words
+        int[] words = new int[columns];
+        int[] shifts = new int[columns];
+        long[] masks = new long[columns];
+        int word = 0;
+        int shift = 0;
+        for (int column = 0; column < columns; column++) {
+            int bits = Math.max(1, 32 - Integer.numberOfLeadingZeros(registry.getNumValues(column) - 1));
+            if (shift + bits > 64) {
+                word++;
+                shift = 0;
+            }
+            words[column] = word;
+            shifts[column] = shift;
+            masks[column] = ((1L << bits) - 1L) << shift;
+            shift += bits;
+        }
+        if (word >= MAX_WORDS) {
+            return null;
+        }
+        return new SUDA2PackedRows(data, columns, registry, word + 1, words, shifts, masks);
+    }
+
+    /** Registry providing the ids of values */
+    private final SUDA2ItemRegistryDense registry;
+    /** Number of words per record */
+    private final int                    width;
+    /** Word of each column */
+    private final int[]                  words;
+    /** Offset of each column within its word */
+    private final int[]                  shifts;
+    /** Bits of each column within its word */
+    private final long[]                 masks;
+    /** Packed records */
+    private final long[]                 records;
+
+    /**
+     * Creates a new instance
+     * @param data
+     * @param columns
+     * @param registry
+     * @param width
+     * @param words
+     * @param shifts
+     * @param masks
+     */
+    private SUDA2PackedRows(int[][] data, int columns, SUDA2ItemRegistryDense registry, int width, int[] words, int[] shifts, long[] masks) {
+        this.registry = registry;
+        this.width = width;
+        this.words = words;
+        this.shifts = shifts;
+        this.masks = masks;
+        this.records = new long[data.length * width];
+        for (int row = 0; row < data.length; row++) {
+            for (int column = 0; column < columns; column++) {
+                long code = registry.getValueId(column, data[row][column]);
+                records[row * width + words[column]] |= code << shifts[column];
+            }
+        }
+    }
+
+    /**
+     * Returns the pattern for the given candidate items and reference item
+     * @param items
+     * @param referenceItem
+     * @return
+     */
+    long[] getPattern(SUDA2Item[] items, SUDA2Item referenceItem) {
+        long[] pattern = new long[width * 4];
+        for (SUDA2Item item : items) {
+            add(pattern, 0, item);
+        }
+        add(pattern, width * 2, referenceItem);
+        return pattern;
+    }
+
+    /**
+     * Returns whether the given row contains all candidate items and does not contain the reference item
+     * @param row Row plus one
+     * @param pattern
+     * @return
+     */
+    boolean isSpecialRow(int row, long[] pattern) {
+        int offset = (row - 1) * width;
+        if (width == 1) {
+            long word = records[offset];
+            return (word & pattern[0]) == pattern[1] && (word & pattern[2]) != pattern[3];
+        } else {
+            long word0 = records[offset];
+            long word1 = records[offset + 1];
+            return (word0 & pattern[0]) == pattern[1] && (word1 & pattern[2]) == pattern[3] &&
+                   ((word0 & pattern[4]) != pattern[5] || (word1 & pattern[6]) != pattern[7]);
+        }
+    }
+
+    /**
+     * Adds the mask and the value of the item to the pattern
+     * @param pattern
+     * @param offset
+     * @param item
+     */
+    private void add(long[] pattern, int offset, SUDA2Item item) {
+        int column = item.getColumn();
+        int word = words[column];
+        long code = registry.getValueId(column, item.getValue());
+        pattern[offset + word * 2] |= masks[column];
+        pattern[offset + word * 2 + 1] |= code << shifts[column];
+    }
+}
@@ -0,0 +1,236 @@
+/*
+ * SUDA2: An implementation of the SUDA2 algorithm for Java
+ * Copyright 2017 Fabian Prasser
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.linearbits.suda2;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+import de.linearbits.suda2.SUDA2ColumnConstraints.Context;
+
+/**
+ * A prefix tree of the rows of a list of items. The path of each row consists of its items
+ * in descending order of their index in the list, so that rows sharing their items with the
+ * highest ranks share nodes. Rows are sorted by their paths, which means that the rows
+ * passing through a node form a contiguous range. Projections of the items following a
+ * reference item are taken from the paths above the nodes of the reference item.
+ * 
+ * @author Fabian Prasser
+ */
+class SUDA2PrefixTree {
+
+    /** The items */
+    private final List<SUDA2Item> items;
+    /** Rows in the order of their paths */
+    private final int[]           rows;
+    /** Index of the item of each node */
+    private final int[]           nodeItems;
+    /** Parent of each node, -1 for children of the root */
+    private final int[]           nodeParents;
+    /** First row of each node */
+    private final int[]           nodeFrom;
+    /** Last row of each node, exclusive */
+    private final int[]           nodeTo;
+    /** Nodes of each item */
+    private final int[][]         itemNodes;
+
+    /**
+     * Creates a new instance
+     * @param items
+     */
+    SUDA2PrefixTree(List<SUDA2Item> items) {
+
+        // Determine rows and lengths of paths
+        this.items = items;
+        int maxRow = 0;
+        for (SUDA2Item item : items) {
+            maxRow = Math.max(maxRow, item.getRows().max());
+        }
+        int[] lengths = new int[maxRow + 1];
+        int numRows = 0;
+        for (SUDA2Item item : items) {
+            for (int row : item.getRows().toArray()) {
+                numRows += lengths[row]++ == 0 ? 1 : 0;
+            }
+        }
+
+        // Collect paths in descending order of the items
+        final int[][] paths = new int[maxRow + 1][];
+        Integer[] order = new Integer[numRows];
+        numRows = 0;
+        for (int row = 0; row <= maxRow; row++) {
+            if (lengths[row] != 0) {
+                paths[row] = new int[lengths[row]];
+                order[numRows++] = row;
+                lengths[row] = 0;
+            }
+        }
+        for (int index = items.size() - 1; index >= 0; index--) {
+            for (int row : items.get(index).getRows().toArray()) {
+                paths[row][lengths[row]++] = index;
+            }
+        }
+
+        // Sort rows by paths
+        Arrays.sort(order, new Comparator<Integer>() {
+            @Override
+            public int compare(Integer o1, Integer o2) {
+                int[] path1 = paths[o1];
+                int[] path2 = paths[o2];
+                int length = Math.min(path1.length, path2.length);
+                for (int i = 0; i < length; i++) {
+                    if (path1[i] != path2[i]) {
+                        return path1[i] > path2[i] ? -1 : +1;
+                    }
+                }
+                return path1.length - path2.length;
+            }
+        });
+        this.rows = new int[numRows];
+        for (int i = 0; i < numRows; i++) {
+            this.rows[i] = order[i];
+        }
+
+        // Count nodes
+        int numNodes = 0;
+        int[] previous = new int[0];
+        for (int row : rows) {
+            int[] path = paths[row];
+            numNodes += path.length - getCommonPrefix(previous, path);
+            previous = path;
+        }
+
+        // Build nodes
+        this.nodeItems = new int[numNodes];
+        this.nodeParents = new int[numNodes];
+        this.nodeFrom = new int[numNodes];
+        this.nodeTo = new int[numNodes];
+        int[] numItemNodes = new int[items.size()];
+        int[] stack = new int[0];
+        int node = 0;
+        previous = new int[0];
+        for (int i = 0; i < rows.length; i++) {
+            int[] path = paths[rows[i]];
+            int prefix = getCommonPrefix(previous, path);
+            for (int depth = prefix; depth < previous.length; depth++) {
+                nodeTo[stack[depth]] = i;
+            }
+            if (stack.length < path.length) {
+                stack = Arrays.copyOf(stack, path.length);
+            }
+            for (int depth = prefix; depth < path.length; depth++) {
+                nodeItems[node] = path[depth];
+                nodeParents[node] = depth == 0 ? -1 : stack[depth - 1];
+                nodeFrom[node] = i;
+                numItemNodes[path[depth]]++;
+                stack[depth] = node++;
+            }
+            previous = path;
+        }
+        for (int depth = 0; depth < previous.length; depth++) {
+            nodeTo[stack[depth]] = rows.length;
+        }
+
+        // Link nodes of each item
+        this.itemNodes = new int[items.size()][];
+        for (int index = 0; index < items.size(); index++) {
+            itemNodes[index] = new int[numItemNodes[index]];
+            numItemNodes[index] = 0;
+        }
+        for (node = 0; node < numNodes; node++) {
+            int index = nodeItems[node];
+            itemNodes[index][numItemNodes[index]++] = node;
+        }
+    }
+
+    /**
+     * Returns all items following the reference item with the given index, projected
+     * onto the rows of the reference item
+     * @param reference
+     * @param context Column constraints, may be null
+     * @return
+     */
+    SUDA2ItemRegistry getItems(int reference, Context context) {
+
+        // Count rows of candidates
+        int count = items.size() - reference - 1;
+        int[] sizes = new int[count];
+        int[] minimums = new int[count];
+        int[] maximums = new int[count];
+        for (int node : itemNodes[reference]) {
+            int min = Integer.MAX_VALUE;
+            int max = Integer.MIN_VALUE;
+            for (int i = nodeFrom[node]; i < nodeTo[node]; i++) {
+                min = Math.min(min, rows[i]);
+                max = Math.max(max, rows[i]);
+            }
+            for (int parent = nodeParents[node]; parent != -1; parent = nodeParents[parent]) {
+                int candidate = nodeItems[parent] - reference - 1;
+                if (sizes[candidate] == 0) {
+                    minimums[candidate] = min;
+                    maximums[candidate] = max;
+                } else {
+                    minimums[candidate] = Math.min(minimums[candidate], min);
+                    maximums[candidate] = Math.max(maximums[candidate], max);
+                }
+                sizes[candidate] += nodeTo[node] - nodeFrom[node];
+            }
+        }
+
+        // Collect rows of candidates
+        SUDA2IntSet[] sets = new SUDA2IntSet[count];
+        for (int candidate = 0; candidate < count; candidate++) {
+            if (sizes[candidate] != 0 && (context == null || context.isAllowed(items.get(reference + 1 + candidate).getColumn()))) {
+                sets[candidate] = SUDA2IntSet.getInstance(sizes[candidate], minimums[candidate], maximums[candidate]);
+            }
+        }
+        for (int node : itemNodes[reference]) {
+            for (int parent = nodeParents[node]; parent != -1; parent = nodeParents[parent]) {
+                SUDA2IntSet set = sets[nodeItems[parent] - reference - 1];
+                if (set != null) {
+                    for (int i = nodeFrom[node]; i < nodeTo[node]; i++) {
+                        set.add(rows[i]);
+                    }
+                }
+            }
+        }
+
+        // Add items in the order of the list
+        SUDA2ItemRegistry result = new SUDA2ItemRegistry();
+        for (int candidate = 0; candidate < count; candidate++) {
+            if (sets[candidate] != null) {
+                result.add(items.get(reference + 1 + candidate).getInstance(sets[candidate]));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns the length of the common prefix of both paths
+     * @param path1
+     * @param path2
+     * @return
+     */
+    private int getCommonPrefix(int[] path1, int[] path2) {
+        int length = Math.min(path1.length, path2.length);
+        int prefix = 0;
+        while (prefix < length && path1[prefix] == path2[prefix]) {
+            prefix++;
+        }
+        return prefix;
+    }
+}
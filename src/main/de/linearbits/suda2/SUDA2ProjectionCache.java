@@ -0,0 +1,331 @@
+/*
+ * SUDA2: An implementation of the SUDA2 algorithm for Java
+ * Copyright 2017 Fabian Prasser
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.linearbits.suda2;
+
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map.Entry;
+
+/**
+ * A memory-bounded cache for projections and 1-MSU checks. Entries are keyed by the
+ * id of the projected item and the identity of the set of rows it is projected onto.
+ * Keys hold on to their sets of rows, which are accounted for in the size of the cache.
+ * Entries are evicted in least-recently-used order. The cache is cleared when the initial
+ * state is built, so that the projections of the first level are reused by repeated
+ * executions on the same state.
+ *
+ * @author Fabian Prasser
+ */
+public class SUDA2ProjectionCache {
+
+    /**
+     * A set of rows, compared by identity
+     *
+     * @author Fabian Prasser
+     */
+    private static final class Rows {
+
+        /** Rows */
+        private final SUDA2IntSet rows;
+        /** Number of rows */
+        private final int         size;
+        /** Hash code */
+        private final int         hashcode;
+        /** Number of keys referencing this set */
+        private int               references;
+
+        /**
+         * Creates a new instance
+         * @param rows
+         */
+        Rows(SUDA2IntSet rows) {
+            this.rows = rows;
+            this.size = rows.size();
+            this.hashcode = System.identityHashCode(rows);
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            return obj instanceof Rows && ((Rows) obj).rows == this.rows;
+        }
+
+        @Override
+        public int hashCode() {
+            return hashcode;
+        }
+    }
+
+    /**
+     * Key of a cache entry
+     *
+     * @author Fabian Prasser
+     */
+    private static final class Key {
+
+        /** Item id */
+        private final long    id;
+        /** Rows */
+        private final Rows    rows;
+        /** Whether this is a projection or a 1-MSU check */
+        private final boolean projection;
+        /** Hash code */
+        private final int     hashcode;
+
+        /**
+         * Creates a new instance
+         * @param id
+         * @param rows
+         * @param projection
+         */
+        Key(long id, Rows rows, boolean projection) {
+            this.id = id;
+            this.rows = rows;
+            this.projection = projection;
+            int hash = (int) (id ^ (id >>> 32));
+            hash = 31 * hash + rows.hashCode();
+            this.hashcode = 31 * hash + (projection ? 1 : 0);
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) obj;
+            return this.id == other.id && this.projection == other.projection && this.rows.equals(other.rows);
+        }
+
+        @Override
+        public int hashCode() {
+            return hashcode;
+        }
+    }
+
+    /** Estimated overhead of an entry in bytes */
+    private static final long                        ENTRY_OVERHEAD = 128;
+    /** Marker for cached results which are null */
+    private static final Object                      NULL           = new Object();
+
+    /** Entries in access order */
+    private final LinkedHashMap<Key, Object>         entries        = new LinkedHashMap<Key, Object>(16, 0.75f, true);
+    /** Sets of rows referenced by keys */
+    private final IdentityHashMap<SUDA2IntSet, Rows> rows           = new IdentityHashMap<SUDA2IntSet, Rows>();
+    /** Maximal number of bytes */
+    private final long                               maxBytes;
+    /** Current number of bytes */
+    private long                                     bytes          = 0;
+    /** Number of hits */
+    private long                                     hits           = 0;
+    /** Number of misses */
+    private long                                     misses         = 0;
+    /** Number of evictions */
+    private long                                     evictions      = 0;
+
+    /**
+     * Creates a new instance
+     * @param maxBytes Estimated number of bytes which may be used by the cache
+     */
+    public SUDA2ProjectionCache(long maxBytes) {
+        if (maxBytes <= 0) {
+            throw new IllegalArgumentException("Size of cache must be positive");
+        }
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * Removes all entries from the cache. Does not reset the counters.
+     */
+    public void clear() {
+        this.entries.clear();
+        this.rows.clear();
+        this.bytes = 0;
+    }
+
+    /**
+     * Returns the estimated number of bytes currently used
+     * @return
+     */
+    public long getBytes() {
+        return this.bytes;
+    }
+
+    /**
+     * Returns the number of entries evicted
+     * @return
+     */
+    public long getEvictions() {
+        return this.evictions;
+    }
+
+    /**
+     * Returns the number of cache hits
+     * @return
+     */
+    public long getHits() {
+        return this.hits;
+    }
+
+    /**
+     * Returns the maximal number of bytes
+     * @return
+     */
+    public long getMaxBytes() {
+        return this.maxBytes;
+    }
+
+    /**
+     * Returns the number of cache misses
+     * @return
+     */
+    public long getMisses() {
+        return this.misses;
+    }
+
+    /**
+     * Returns the number of entries
+     * @return
+     */
+    public int getSize() {
+        return this.entries.size();
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder();
+        builder.append("Projection cache\n");
+        builder.append(" - Entries: ").append(this.entries.size()).append("\n");
+        builder.append(" - Bytes: ").append(this.bytes).append(" of ").append(this.maxBytes).append("\n");
+        builder.append(" - Hits: ").append(this.hits).append("\n");
+        builder.append(" - Misses: ").append(this.misses).append("\n");
+        builder.append(" - Evictions: ").append(this.evictions).append("\n");
+        return builder.toString();
+    }
+
+    /**
+     * Returns the size of an entry
+     * @param value
+     * @return
+     */
+    private long getBytes(Object value) {
+        if (value instanceof SUDA2Item) {
+            return ENTRY_OVERHEAD + 4L * ((SUDA2Item) value).getRows().size();
+        } else {
+            return ENTRY_OVERHEAD;
+        }
+    }
+
+    /**
+     * Returns the size of a set of rows
+     * @param rows
+     * @return
+     */
+    private long getBytes(Rows rows) {
+        return ENTRY_OVERHEAD + 4L * rows.size;
+    }
+
+    /**
+     * Returns the given set of rows, shared with the keys of the cache if possible
+     * @param set
+     * @return
+     */
+    private Rows getRows(SUDA2IntSet set) {
+        Rows rows = this.rows.get(set);
+        return rows != null ? rows : new Rows(set);
+    }
+
+    /**
+     * Adds an entry and evicts entries if needed
+     * @param key
+     * @param value
+     */
+    private void put(Key key, Object value) {
+
+        // Too large
+        long size = getBytes(value) + (key.rows.references == 0 ? getBytes(key.rows) : 0L);
+        if (size > maxBytes) {
+            return;
+        }
+
+        // Add
+        this.entries.put(key, value);
+        if (key.rows.references++ == 0) {
+            this.rows.put(key.rows.rows, key.rows);
+        }
+        this.bytes += size;
+
+        // Evict
+        Iterator<Entry<Key, Object>> iter = this.entries.entrySet().iterator();
+        while (this.bytes > this.maxBytes) {
+            Entry<Key, Object> eldest = iter.next();
+            Rows rows = eldest.getKey().rows;
+            this.bytes -= getBytes(eldest.getValue());
+            if (--rows.references == 0) {
+                this.rows.remove(rows.rows);
+                this.bytes -= getBytes(rows);
+            }
+            this.evictions++;
+            iter.remove();
+        }
+    }
+
+    /**
+     * Returns the item if it becomes a 1-MSU in the given set of rows, null otherwise
+     * @param item
+     * @param rows
+     * @return
+     */
+    SUDA2Item get1MSU(SUDA2Item item, SUDA2IntSet rows) {
+
+        // Probe
+        Key key = new Key(item.getId(), getRows(rows), false);
+        Object value = this.entries.get(key);
+        if (value != null) {
+            this.hits++;
+            return value == NULL ? null : item;
+        }
+
+        // Compute
+        this.misses++;
+        SUDA2Item result = item.get1MSU(rows);
+        put(key, result == null ? NULL : Boolean.TRUE);
+        return result;
+    }
+
+    /**
+     * Returns the projection of the item to the given rows
+     * @param item
+     * @param rows
+     * @return
+     */
+    SUDA2Item getProjection(SUDA2Item item, SUDA2IntSet rows) {
+
+        // Probe
+        Key key = new Key(item.getId(), getRows(rows), true);
+        Object value = this.entries.get(key);
+        if (value != null) {
+            this.hits++;
+            return value == NULL ? null : (SUDA2Item) value;
+        }
+
+        // Compute
+        this.misses++;
+        SUDA2Item result = item.getProjection(rows);
+        put(key, result == null ? NULL : result);
+        return result;
+    }
+}
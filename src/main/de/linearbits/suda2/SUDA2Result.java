@@ -16,6 +16,9 @@
  */
 package de.linearbits.suda2;
 
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
 import java.util.Set;
 
 /**
@@ -25,6 +28,18 @@ import java.util.Set;
  */
 public abstract class SUDA2Result {
 
+    /** Rows of the data in the order in which they have been registered, null if not reordered */
+    private int[] order;
+
+    /**
+     * Returns the row of the data for a registered row
+     * @param row
+     * @return
+     */
+    int getRow(int row) {
+        return order == null ? row : order[row];
+    }
+
     /**
      * Initializer
      * @param columns
@@ -34,6 +49,27 @@ public abstract class SUDA2Result {
      */
     abstract void init(int columns, int maxK, int numUniqueRecords, int numDuplicateRecords);
     
+    /**
+     * Adds the keys registered with the given result, which must have the same configuration
+     * and must have been computed for reference items following those of this result
+     * @param other
+     */
+    void merge(SUDA2Result other) {
+        throw new UnsupportedOperationException("Merging is not supported by " + getClass().getSimpleName());
+    }
+
+    /**
+     * Restores the state of this result written by {@link #write(DataOutput)}. Returns false
+     * without modifying the state, if the state has been written by a result with a different
+     * configuration.
+     * @param in
+     * @return
+     * @throws IOException
+     */
+    boolean read(DataInput in) throws IOException {
+        throw new UnsupportedOperationException("Checkpoints are not supported by " + getClass().getSimpleName());
+    }
+
     /**
      * Registers an MSU
      * @param set
@@ -53,4 +89,21 @@ public abstract class SUDA2Result {
      */
     abstract void registerKey(SUDA2ItemSet set);
 
+    /**
+     * Sets the rows of the data in the order in which they have been registered, null if not reordered
+     * @param order
+     */
+    void setOrder(int[] order) {
+        this.order = order;
+    }
+
+    /**
+     * Writes the state of this result
+     * @param out
+     * @throws IOException
+     */
+    void write(DataOutput out) throws IOException {
+        throw new UnsupportedOperationException("Checkpoints are not supported by " + getClass().getSimpleName());
+    }
+
 }
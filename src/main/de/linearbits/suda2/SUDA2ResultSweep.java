@@ -0,0 +1,120 @@
+/*
+ * SUDA2: An implementation of the SUDA2 algorithm for Java
+ * Copyright 2017 Fabian Prasser
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.linearbits.suda2;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Distributes the keys found by one execution with a maximal key length K to results
+ * for all maximal key lengths 1..K. As MSUs are minimal, the keys of a result for a
+ * maximal key length k are exactly the keys of size <= k found for K.
+ *
+ * @author Fabian Prasser
+ */
+class SUDA2ResultSweep extends SUDA2Result {
+
+    /** The results, the result at index i is for maximal key length i + 1 */
+    private final List<? extends SUDA2Result> results;
+
+    /**
+     * Creates a new instance
+     * @param results
+     */
+    SUDA2ResultSweep(List<? extends SUDA2Result> results) {
+        this.results = results;
+    }
+
+    @Override
+    void init(int columns, int maxK, int numUniqueRecords, int numDuplicateRecords) {
+        for (int i = 0; i < results.size(); i++) {
+            results.get(i).init(columns, i + 1, numUniqueRecords, numDuplicateRecords);
+        }
+    }
+
+    @Override
+    boolean read(DataInput in) throws IOException {
+        if (in.readInt() != results.size()) {
+            return false;
+        }
+
+        // Back up the state, which is restored if a later result cannot be read
+        ByteArrayOutputStream backup = new ByteArrayOutputStream();
+        write(new DataOutputStream(backup));
+        boolean restore = true;
+        try {
+            for (SUDA2Result result : results) {
+                if (!result.read(in)) {
+                    return false;
+                }
+            }
+            restore = false;
+            return true;
+        } finally {
+            if (restore) {
+                DataInputStream state = new DataInputStream(new ByteArrayInputStream(backup.toByteArray()));
+                state.readInt();
+                for (SUDA2Result result : results) {
+                    result.read(state);
+                }
+            }
+        }
+    }
+
+    @Override
+    void registerKey(Set<SUDA2Item> set) {
+        for (int i = set.size() - 1; i < results.size(); i++) {
+            results.get(i).registerKey(set);
+        }
+    }
+
+    @Override
+    void registerKey(SUDA2Item item, SUDA2ItemSet set) {
+        for (int i = set.size(); i < results.size(); i++) {
+            results.get(i).registerKey(item, set);
+        }
+    }
+
+    @Override
+    void registerKey(SUDA2ItemSet set) {
+        for (int i = set.size() - 1; i < results.size(); i++) {
+            results.get(i).registerKey(set);
+        }
+    }
+
+    @Override
+    void setOrder(int[] order) {
+        for (SUDA2Result result : results) {
+            result.setOrder(order);
+        }
+    }
+
+    @Override
+    void write(DataOutput out) throws IOException {
+        out.writeInt(results.size());
+        for (SUDA2Result result : results) {
+            result.write(out);
+        }
+    }
+}
@@ -0,0 +1,153 @@
+/*
+ * SUDA2: An implementation of the SUDA2 algorithm for Java
+ * Copyright 2017 Fabian Prasser
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.linearbits.suda2;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+
+/**
+ * A temporary file to which the sets of rows of registries are written. Each set is written as
+ * its rows in ascending order, all sets of a registry form a region of the file, which is mapped
+ * into memory. Regions are used as a stack: when the recursion returns from a level, its region 
+ * is released and overwritten by the regions of later levels. The file thus grows to the size of
+ * the largest sum of the regions of the levels on one path of the recursion. Mappings of released 
+ * regions remain until they are garbage collected. The file is deleted immediately after it has 
+ * been created.
+ *
+ * @author Fabian Prasser
+ */
+class SUDA2Spill {
+
+    /** Number of bytes written at once */
+    private static final int  BUFFER_SIZE = 1 << 16;
+
+    /** File */
+    private final File        file;
+    /** Channel */
+    private final FileChannel channel;
+    /** Buffer */
+    private final ByteBuffer  buffer      = ByteBuffer.allocate(BUFFER_SIZE);
+    /** Size of the file */
+    private long              position;
+
+    /**
+     * Creates a new instance
+     * @param directory Directory for the file, null for the default temporary directory
+     */
+    SUDA2Spill(File directory) {
+        try {
+            this.file = File.createTempFile("suda2", ".spill", directory);
+            this.channel = new RandomAccessFile(file, "rw").getChannel();
+            if (!file.delete()) {
+                file.deleteOnExit();
+            }
+        } catch (IOException e) {
+            throw new SUDA2Exception("Cannot create spill file in: " + directory, e);
+        }
+    }
+
+    /**
+     * Closes the file. Mapped sets remain valid.
+     */
+    void close() {
+        try {
+            channel.close();
+        } catch (IOException e) {
+            throw new SUDA2Exception("Cannot close spill file: " + file, e);
+        }
+    }
+
+    /**
+     * Returns the position at which the next region is written
+     * @return
+     */
+    long getPosition() {
+        return position;
+    }
+
+    /**
+     * Releases all regions written from the given position on, which must have been returned
+     * by {@link #getPosition()}. Sets mapped from these regions must not be used anymore.
+     * @param position
+     */
+    void reset(long position) {
+        this.position = position;
+    }
+
+    /**
+     * Writes the given sets and returns mapped sets with the same rows. Returns null, if
+     * the sets are empty or too large to be mapped at once.
+     * @param sets
+     * @return
+     */
+    SUDA2IntSet[] write(SUDA2IntSet[] sets) {
+
+        // Check size
+        long size = 0;
+        for (SUDA2IntSet set : sets) {
+            size += set.size();
+        }
+        if (size == 0 || size > Integer.MAX_VALUE / 4) {
+            return null;
+        }
+
+        // Write
+        long start = position;
+        try {
+            for (SUDA2IntSet set : sets) {
+                int[] rows = set.toArray();
+                Arrays.sort(rows);
+                for (int row : rows) {
+                    if (!buffer.hasRemaining()) {
+                        flush();
+                    }
+                    buffer.putInt(row);
+                }
+            }
+            flush();
+
+            // Map
+            IntBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, start, position - start).asIntBuffer();
+            SUDA2IntSet[] result = new SUDA2IntSet[sets.length];
+            int offset = 0;
+            for (int i = 0; i < sets.length; i++) {
+                result[i] = new SUDA2IntSetMapped(mapped, offset, sets[i].size());
+                offset += sets[i].size();
+            }
+            return result;
+        } catch (IOException e) {
+            throw new SUDA2Exception("Cannot write spill file: " + file, e);
+        }
+    }
+
+    /**
+     * Writes the content of the buffer
+     * @throws IOException
+     */
+    private void flush() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            position += channel.write(buffer, position);
+        }
+        buffer.clear();
+    }
+}
@@ -16,6 +16,9 @@
  */
 package de.linearbits.suda2;
 
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
 import java.text.DecimalFormat;
 import java.util.Arrays;
 import java.util.Set;
@@ -199,6 +202,40 @@ public class SUDA2StatisticsColumns extends SUDA2Result {
         // Empty by design
     }
 
+    @Override
+    void merge(SUDA2Result result) {
+        SUDA2StatisticsColumns other = (SUDA2StatisticsColumns) result;
+        this.totalKeySize += other.totalKeySize;
+        this.totalScore += other.totalScore;
+        for (int i = 0; i < columns; i++) {
+            this.columnKeyContributions[i] += other.columnKeyContributions[i];
+            this.columnKeyTotals[i] += other.columnKeyTotals[i];
+            this.columnKeyCounts[i] += other.columnKeyCounts[i];
+        }
+    }
+
+    @Override
+    boolean read(DataInput in) throws IOException {
+        if (in.readInt() != columns || in.readInt() != maxK) {
+            return false;
+        }
+        double[] intermediateScores = new double[in.readInt()];
+        for (int i = 0; i < intermediateScores.length; i++) {
+            intermediateScores[i] = in.readDouble();
+        }
+        if (!Arrays.equals(intermediateScores, this.intermediateScores)) {
+            return false;
+        }
+        this.totalKeySize = in.readLong();
+        this.totalScore = in.readDouble();
+        for (int i = 0; i < columns; i++) {
+            this.columnKeyContributions[i] = in.readDouble();
+            this.columnKeyTotals[i] = in.readDouble();
+            this.columnKeyCounts[i] = in.readDouble();
+        }
+        return true;
+    }
+
     @Override
     void registerKey(Set<SUDA2Item> set) {
         this.totalKeySize += set.size();
@@ -241,4 +278,21 @@ public class SUDA2StatisticsColumns extends SUDA2Result {
             this.columnKeyCounts[column]++;
         }
     }
+
+    @Override
+    void write(DataOutput out) throws IOException {
+        out.writeInt(columns);
+        out.writeInt(maxK);
+        out.writeInt(intermediateScores.length);
+        for (double value : intermediateScores) {
+            out.writeDouble(value);
+        }
+        out.writeLong(totalKeySize);
+        out.writeDouble(totalScore);
+        for (int i = 0; i < columns; i++) {
+            out.writeDouble(columnKeyContributions[i]);
+            out.writeDouble(columnKeyTotals[i]);
+            out.writeDouble(columnKeyCounts[i]);
+        }
+    }
 }
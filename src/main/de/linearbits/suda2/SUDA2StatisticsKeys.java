@@ -16,6 +16,9 @@
  */
 package de.linearbits.suda2;
 
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
 import java.text.DecimalFormat;
 import java.util.Arrays;
 import java.util.Set;
@@ -193,6 +196,29 @@ public class SUDA2StatisticsKeys extends SUDA2Result {
         // Empty by design
     }
 
+    @Override
+    void merge(SUDA2Result result) {
+        SUDA2StatisticsKeys other = (SUDA2StatisticsKeys) result;
+        this.numKeys += other.numKeys;
+        this.totalKeySize += other.totalKeySize;
+        for (int i = 0; i < sizeDistribution.length; i++) {
+            this.sizeDistribution[i] += other.sizeDistribution[i];
+        }
+    }
+
+    @Override
+    boolean read(DataInput in) throws IOException {
+        if (in.readInt() != columns || in.readInt() != maxK) {
+            return false;
+        }
+        this.numKeys = in.readLong();
+        this.totalKeySize = in.readLong();
+        for (int i = 0; i < sizeDistribution.length; i++) {
+            this.sizeDistribution[i] = in.readDouble();
+        }
+        return true;
+    }
+
     @Override
     void registerKey(Set<SUDA2Item> set) {
         this.numKeys++;
@@ -213,4 +239,15 @@ public class SUDA2StatisticsKeys extends SUDA2Result {
         this.totalKeySize += set.size();
         this.sizeDistribution[set.size() - 1]++;
     }
+
+    @Override
+    void write(DataOutput out) throws IOException {
+        out.writeInt(columns);
+        out.writeInt(maxK);
+        out.writeLong(numKeys);
+        out.writeLong(totalKeySize);
+        for (double value : sizeDistribution) {
+            out.writeDouble(value);
+        }
+    }
 }
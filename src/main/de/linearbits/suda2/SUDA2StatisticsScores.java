@@ -16,6 +16,10 @@
  */
 package de.linearbits.suda2;
 
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Arrays;
 
 /**
  * A class for calculating SUDA scores
@@ -127,8 +131,14 @@ public class SUDA2StatisticsScores extends SUDA2ListenerScore {
         return score / factorial;
     }
 
-    /** Per record scores */
-    private double[] recordScores;
+    /** Number of keys of each size contained in each record, indexed by row * maxK + size - 1 */
+    private final int[]    recordKeys;
+    /** Score of keys of each size */
+    private final double[] sizeScores;
+    /** Per record scores, null if they must be computed */
+    private double[]       recordScores;
+    /** Number of records */
+    private final int      rows;
     /** The number of MSUs */
     private long     numKeys    = 0;
     /** Risk distribution */
@@ -143,6 +153,8 @@ public class SUDA2StatisticsScores extends SUDA2ListenerScore {
     private int      numDuplicateRecords = 0;
     /** Maximal size of an MSU considered */
     private final int      maxK;
+    /** Maximal size up to which all MSUs have been found */
+    private int            maxCompleteK;
     
     /**
      * Creates a new instance
@@ -153,9 +165,15 @@ public class SUDA2StatisticsScores extends SUDA2ListenerScore {
      */
     SUDA2StatisticsScores(int rows, int columns, int maxK, boolean sdcMicroScores) {
         super(sdcMicroScores);
-        this.recordScores = new double[rows];
+        if ((long) rows * (long) maxK > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Too many records for keys of size " + maxK);
+        }
+        this.rows = rows;
+        this.recordKeys = new int[rows * maxK];
+        this.sizeScores = sdcMicroScores ? getScoresSDCMicro(columns, maxK) : getScoresElliot(columns, maxK);
         this.columns = columns;
         this.maxK = maxK;
+        this.maxCompleteK = maxK;
     }
 
     /**
@@ -166,6 +184,15 @@ public class SUDA2StatisticsScores extends SUDA2ListenerScore {
         return (double)this.totalScore / (double)this.numKeys;
     }
 
+    /**
+     * Returns the maximal size up to which all keys have been found. Smaller than
+     * the maximal size searched for, if the execution has exceeded its time budget.
+     * @return
+     */
+    public int getMaxCompleteKeyLength() {
+        return this.maxCompleteK;
+    }
+
     /**
      * Returns the maximal size which has been searched for
      * @return
@@ -188,7 +215,7 @@ public class SUDA2StatisticsScores extends SUDA2ListenerScore {
      * @return
      */
     public double[] getDISScores(double samplingFraction) {
-        return SUDA2StatisticsScores.getScoreDIS(recordScores, numUniqueRecords, numDuplicateRecords, columns, samplingFraction);
+        return SUDA2StatisticsScores.getScoreDIS(getSUDAScores(), numUniqueRecords, numDuplicateRecords, columns, samplingFraction);
     }
     
     /**
@@ -200,16 +227,86 @@ public class SUDA2StatisticsScores extends SUDA2ListenerScore {
     }
     
     /**
-     * Returns the scores for all records
+     * Returns the scores for all records. The score of a record is the sum of the scores of
+     * the keys it contains. Keys are counted per size and scores are summed by size, so that
+     * they do not depend on the order in which keys are found.
      * @return
      */
     public double[] getSUDAScores() {
+        if (this.recordScores == null) {
+            this.recordScores = new double[rows];
+            for (int row = 0; row < rows; row++) {
+                double score = 0d;
+                for (int size = 0; size < maxK; size++) {
+                    score += recordKeys[row * maxK + size] * sizeScores[size];
+                }
+                this.recordScores[row] = score;
+            }
+        }
         return this.recordScores;
     }
     
+    /**
+     * Returns whether all keys up to the maximal size searched for have been found
+     * @return
+     */
+    public boolean isComplete() {
+        return this.maxCompleteK == this.maxK;
+    }
+    
+    /**
+     * Returns whether numbers of keys are written as pairs of indices and values
+     * @param nonZero
+     * @return
+     */
+    private boolean isSparse(int nonZero) {
+        return nonZero * 8L < recordKeys.length * 4L;
+    }
+
+    @Override
+    void merge(SUDA2Result result) {
+        
+        // Keys of records are counted
+        SUDA2StatisticsScores other = (SUDA2StatisticsScores) result;
+        for (int i = 0; i < recordKeys.length; i++) {
+            this.recordKeys[i] += other.recordKeys[i];
+        }
+        this.recordScores = null;
+        this.numKeys += other.numKeys;
+        this.totalScore += other.totalScore;
+        this.highestScore = Math.max(this.highestScore, other.highestScore);
+    }
+
+    @Override
+    boolean read(DataInput in) throws IOException {
+        if (in.readInt() != rows || in.readInt() != columns || in.readInt() != maxK ||
+            in.readBoolean() != isSdcMicroScores()) {
+            return false;
+        }
+        this.numUniqueRecords = in.readInt();
+        this.numDuplicateRecords = in.readInt();
+        int nonZero = in.readInt();
+        if (isSparse(nonZero)) {
+            Arrays.fill(this.recordKeys, 0);
+            for (int i = 0; i < nonZero; i++) {
+                this.recordKeys[in.readInt()] = in.readInt();
+            }
+        } else {
+            for (int i = 0; i < recordKeys.length; i++) {
+                this.recordKeys[i] = in.readInt();
+            }
+        }
+        this.recordScores = null;
+        this.numKeys = in.readLong();
+        this.totalScore = in.readDouble();
+        this.highestScore = in.readDouble();
+        return true;
+    }
+    
     @Override
     public void scoreFound(int row, int size, double score) {
-        this.recordScores[row] = score;
+        this.recordKeys[row * maxK + size - 1]++;
+        this.recordScores = null;
         this.totalScore += score;
         this.highestScore = Math.max(this.highestScore, score);
         this.numKeys++;
@@ -221,4 +318,42 @@ public class SUDA2StatisticsScores extends SUDA2ListenerScore {
         this.numUniqueRecords = numUniqueRecords;
         this.numDuplicateRecords = numDuplicateRecords;
     }
+
+    /**
+     * Sets the maximal size up to which all keys have been found
+     * @param maxCompleteK
+     */
+    void setMaxCompleteKeyLength(int maxCompleteK) {
+        this.maxCompleteK = maxCompleteK;
+    }
+
+    @Override
+    void write(DataOutput out) throws IOException {
+        out.writeInt(rows);
+        out.writeInt(columns);
+        out.writeInt(maxK);
+        out.writeBoolean(isSdcMicroScores());
+        out.writeInt(numUniqueRecords);
+        out.writeInt(numDuplicateRecords);
+        int nonZero = 0;
+        for (int keys : recordKeys) {
+            nonZero += keys != 0 ? 1 : 0;
+        }
+        out.writeInt(nonZero);
+        if (isSparse(nonZero)) {
+            for (int i = 0; i < recordKeys.length; i++) {
+                if (recordKeys[i] != 0) {
+                    out.writeInt(i);
+                    out.writeInt(recordKeys[i]);
+                }
+            }
+        } else {
+            for (int keys : recordKeys) {
+                out.writeInt(keys);
+            }
+        }
+        out.writeLong(numKeys);
+        out.writeDouble(totalScore);
+        out.writeDouble(highestScore);
+    }
 }
@@ -0,0 +1,258 @@
+/*
+ * SUDA2: An implementation of the SUDA2 algorithm for Java
+ * Copyright 2017 Fabian Prasser
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.linearbits.suda2;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Searches for the special rows of the candidates of a reference item, which share the item
+ * with the lowest support, at once. The rows of this pivot item which do not contain the reference
+ * item are determined once. For each item of the candidates, a bitmap of the rows containing the
+ * item is built in a single scan over these rows. A candidate contains a special row if the 
+ * conjunction of the bitmaps of its items is not empty. Items are addressed by local indices,
+ * which are looked up in an array indexed by the ids of the items.
+ * 
+ * @author Fabian Prasser
+ */
+class SUDA2Verifier {
+
+    /** Candidate has not been verified */
+    static final byte     UNVERIFIED = 0;
+    /** Candidate contains a special row */
+    static final byte     SPECIAL    = 1;
+    /** Candidate does not contain a special row */
+    static final byte     NO_SPECIAL = 2;
+
+    /** The data */
+    private final int[][] data;
+    /** Minimal number of candidates sharing a pivot, which are verified at once */
+    private final int     minCandidates;
+    /** Local index of each item, indexed by id, valid if the stamp is current */
+    private int[]         indices    = new int[0];
+    /** Stamp of each local index */
+    private int[]         stamps     = new int[0];
+    /** Current stamp */
+    private int           stamp;
+
+    /**
+     * Creates a new instance
+     * @param data
+     * @param minCandidates
+     */
+    SUDA2Verifier(int[][] data, int minCandidates) {
+        this.data = data;
+        this.minCandidates = minCandidates;
+    }
+
+    /**
+     * Returns for each candidate whether it contains a special row, i.e. whether the candidate 
+     * extended by the reference item is an MSU. Candidates which have not been verified are
+     * marked as unverified. Returns null, if no candidates have been verified.
+     * @param candidates
+     * @param registry Items of the current level
+     * @param referenceItem
+     * @return
+     */
+    byte[] verify(List<SUDA2ItemSet> candidates, SUDA2ItemRegistry registry, SUDA2Item referenceItem) {
+
+        // Determine pivots
+        int size = candidates.size();
+        int[] pivots = new int[size];
+        int[] counts = new int[size];
+        SUDA2Item[] items = new SUDA2Item[size];
+        int numPivots = 0;
+        nextStamp();
+        for (int index = 0; index < size; index++) {
+            SUDA2ItemSet candidate = candidates.get(index);
+            pivots[index] = -1;
+            if (candidate.size() <= 1) {
+                continue;
+            }
+            SUDA2Item pivot = null;
+            for (int i = 0; i < candidate.size(); i++) {
+                SUDA2Item item = registry.get(candidate.get(i).getId());
+                if (pivot == null || item.getRows().size() < pivot.getRows().size()) {
+                    pivot = item;
+                }
+            }
+            if (!isIndexable(pivot.getId())) {
+                return null;
+            }
+            int local = getIndex(pivot.getId());
+            if (local < 0) {
+                local = setIndex(pivot.getId(), numPivots);
+                items[numPivots++] = pivot;
+            }
+            pivots[index] = local;
+            counts[local]++;
+        }
+
+        // Group candidates by pivot
+        int[] offsets = new int[numPivots + 1];
+        for (int pivot = 0; pivot < numPivots; pivot++) {
+            offsets[pivot + 1] = offsets[pivot] + counts[pivot];
+        }
+        int[] groups = new int[offsets[numPivots]];
+        int[] positions = Arrays.copyOf(offsets, numPivots);
+        for (int index = 0; index < size; index++) {
+            if (pivots[index] >= 0) {
+                groups[positions[pivots[index]]++] = index;
+            }
+        }
+
+        // Verify large groups
+        byte[] result = new byte[size];
+        boolean verified = false;
+        for (int pivot = 0; pivot < numPivots; pivot++) {
+            if (counts[pivot] >= minCandidates && verify(candidates, groups, offsets[pivot], offsets[pivot + 1], items[pivot], referenceItem, result)) {
+                verified = true;
+            }
+        }
+        return verified ? result : null;
+    }
+
+    /**
+     * Returns the local index of the item with the given id, -1 if none has been assigned
+     * @param id
+     * @return
+     */
+    private int getIndex(long id) {
+        return id < stamps.length && stamps[(int) id] == stamp ? indices[(int) id] : -1;
+    }
+
+    /**
+     * Returns whether the given id can be used as an index
+     * @param id
+     * @return
+     */
+    private boolean isIndexable(long id) {
+        return id >= 0 && id < Integer.MAX_VALUE - 8;
+    }
+
+    /**
+     * Invalidates all local indices
+     */
+    private void nextStamp() {
+        stamp++;
+        if (stamp == 0) {
+            Arrays.fill(stamps, 0);
+            stamp = 1;
+        }
+    }
+
+    /**
+     * Assigns the given local index to the item with the given id
+     * @param id
+     * @param index
+     * @return The index
+     */
+    private int setIndex(long id, int index) {
+        if (id >= stamps.length) {
+            int length = (int) Math.max(id + 1, Math.min(Integer.MAX_VALUE - 8, 2L * stamps.length));
+            stamps = Arrays.copyOf(stamps, length);
+            indices = Arrays.copyOf(indices, length);
+        }
+        stamps[(int) id] = stamp;
+        indices[(int) id] = index;
+        return index;
+    }
+
+    /**
+     * Verifies a group of candidates sharing a pivot. Returns false, if the group has not
+     * been verified.
+     * @param candidates
+     * @param groups
+     * @param from
+     * @param to
+     * @param pivot
+     * @param referenceItem
+     * @param result
+     * @return
+     */
+    private boolean verify(List<SUDA2ItemSet> candidates, int[] groups, int from, int to, SUDA2Item pivot, SUDA2Item referenceItem, byte[] result) {
+
+        // Collect items
+        nextStamp();
+        List<SUDA2Item> items = new ArrayList<>();
+        for (int index = from; index < to; index++) {
+            SUDA2ItemSet candidate = candidates.get(groups[index]);
+            for (int i = 0; i < candidate.size(); i++) {
+                SUDA2Item item = candidate.get(i);
+                if (item.getId() != pivot.getId()) {
+                    if (!isIndexable(item.getId())) {
+                        return false;
+                    }
+                    if (getIndex(item.getId()) < 0) {
+                        setIndex(item.getId(), items.size());
+                        items.add(item);
+                    }
+                }
+            }
+        }
+        SUDA2Item[] _items = items.toArray(new SUDA2Item[items.size()]);
+
+        // Build bitmaps in a single scan over the rows of the pivot
+        int[] rows = pivot.getRows().toArray();
+        int words = (rows.length + 63) >>> 6;
+        long[][] bitmaps = new long[_items.length][words];
+        long[] candidateRows = new long[words];
+        for (int position = 0; position < rows.length; position++) {
+            int[] row = data[rows[position] - 1];
+            if (referenceItem.isContained(row)) {
+                continue;
+            }
+            long bit = 1L << position;
+            candidateRows[position >>> 6] |= bit;
+            for (int i = 0; i < _items.length; i++) {
+                if (_items[i].isContained(row)) {
+                    bitmaps[i][position >>> 6] |= bit;
+                }
+            }
+        }
+
+        // Check candidates
+        long[][] operands = new long[0][];
+        for (int index = from; index < to; index++) {
+            SUDA2ItemSet candidate = candidates.get(groups[index]);
+            int size = 0;
+            if (operands.length < candidate.size()) {
+                operands = new long[candidate.size()][];
+            }
+            operands[size++] = candidateRows;
+            for (int i = 0; i < candidate.size(); i++) {
+                long id = candidate.get(i).getId();
+                if (id != pivot.getId()) {
+                    operands[size++] = bitmaps[getIndex(id)];
+                }
+            }
+            result[groups[index]] = NO_SPECIAL;
+            for (int word = 0; word < words; word++) {
+                long conjunction = operands[0][word];
+                for (int i = 1; i < size && conjunction != 0L; i++) {
+                    conjunction &= operands[i][word];
+                }
+                if (conjunction != 0L) {
+                    result[groups[index]] = SPECIAL;
+                    break;
+                }
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,93 @@
+/*
+ * SUDA2: An implementation of the SUDA2 algorithm for Java
+ * Copyright 2017 Fabian Prasser
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.linearbits.suda2;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.Socket;
+
+/**
+ * A worker, which processes ranges of reference items handed out by a {@link SUDA2Coordinator}.
+ * The worker must be created for the same data as the coordinator.
+ *
+ * @author Fabian Prasser
+ */
+public class SUDA2Worker {
+
+    /** The data */
+    private final int[][] data;
+    /** Number of columns */
+    private final int     columns;
+    /** Instance, which retains the initial state */
+    private final SUDA2   suda2;
+
+    /**
+     * Creates a new instance
+     * @param data
+     */
+    public SUDA2Worker(int[][] data) {
+        this.suda2 = new SUDA2(data);
+        this.suda2.setRetainInitialState(true);
+        this.data = data;
+        this.columns = data.length == 0 ? 0 : data[0].length;
+    }
+
+    /**
+     * Connects to the coordinator and processes ranges until the coordinator is closed
+     * @param host
+     * @param port
+     * @throws IOException
+     */
+    public void run(String host, int port) throws IOException {
+        try (Socket socket = new Socket(host, port)) {
+
+            // Handshake
+            DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+            out.writeInt(SUDA2Coordinator.MAGIC);
+            out.writeLong(SUDA2.getFingerprint(data));
+            out.flush();
+            if (!in.readBoolean()) {
+                throw new SUDA2Exception("Data of worker does not match data of coordinator");
+            }
+
+            // Process
+            while (in.readInt() == SUDA2Coordinator.COMMAND_TASK) {
+                int type = in.readInt();
+                int maxKeyLength = in.readInt();
+                boolean sdcMicroScores = in.readBoolean();
+                int from = in.readInt();
+                int to = in.readInt();
+                SUDA2Result result = SUDA2Coordinator.getResult(data, columns, type, maxKeyLength, sdcMicroScores);
+                try {
+                    suda2.getStatistics(result, maxKeyLength, from, to);
+                } catch (RuntimeException e) {
+                    out.writeBoolean(false);
+                    out.writeUTF(String.valueOf(e.getMessage()));
+                    out.flush();
+                    throw e;
+                }
+                out.writeBoolean(true);
+                result.write(out);
+                out.flush();
+            }
+        }
+    }
+}
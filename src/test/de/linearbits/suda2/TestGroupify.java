@@ -0,0 +1,108 @@
+/*
+ * SUDA2: An implementation of the SUDA2 algorithm for Java
+ * Copyright 2017 Fabian Prasser
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.linearbits.suda2;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Compare implementations of the groupify operator
+ * 
+ * @author Fabian Prasser
+ */
+public class TestGroupify {
+
+    public static void main(String[] args) {
+        
+        // Data with many duplicates
+        Random random = new Random(0xDEADBEEF);
+        int[][] data = new int[2000000][8];
+        for (int[] row : data) {
+            for (int column = 0; column < row.length; column++) {
+                row[column] = random.nextInt(column + 3);
+            }
+        }
+        
+        // Objects
+        long time = System.currentTimeMillis();
+        SUDA2Groupify groupify1 = new SUDA2Groupify(data.length);
+        boolean[] ignore1 = new boolean[data.length];
+        for (int row = 0; row < data.length; row++) {
+            ignore1[row] = groupify1.canBeIgnored(data[row]);
+        }
+        System.out.println("Objects: " + (System.currentTimeMillis() - time));
+
+        // Primitive arrays
+        time = System.currentTimeMillis();
+        SUDA2GroupifyPrimitive groupify2 = new SUDA2GroupifyPrimitive(data, data.length);
+        boolean[] ignore2 = new boolean[data.length];
+        for (int row = 0; row < data.length; row++) {
+            ignore2[row] = groupify2.canBeIgnored(row);
+        }
+        System.out.println("Primitive arrays: " + (System.currentTimeMillis() - time));
+        System.out.println(" - Equal: " + (Arrays.equals(ignore1, ignore2) &&
+                                           groupify1.getNumUniqueRecords() == groupify2.getNumUniqueRecords() &&
+                                           groupify1.getNumDuplicateRecords() == groupify2.getNumDuplicateRecords()));
+        
+        // Representatives of a subset of columns
+        int[] subset = new int[] { 7, 2, 5 };
+        SUDA2Groupify groupify3 = new SUDA2Groupify(data.length);
+        SUDA2GroupifyPrimitive groupify4 = new SUDA2GroupifyPrimitive(data, subset, data.length);
+        boolean equal = true;
+        for (int row = 0; row < data.length; row++) {
+            int[] record = new int[subset.length];
+            for (int i = 0; i < subset.length; i++) {
+                record[i] = data[row][subset[i]];
+            }
+            equal &= groupify3.getRepresentative(record, row + 1) == groupify4.getRepresentative(row) + 1;
+        }
+        equal &= groupify3.getDuplicateRepresentatives().size() == groupify4.getDuplicateRepresentatives().size();
+        System.out.println(" - Equal representatives: " + equal);
+
+        // Wide data with few distinct values per column
+        data = new int[200000][80];
+        for (int[] row : data) {
+            for (int column = 0; column < row.length; column++) {
+                row[column] = random.nextInt(column < 76 ? 2 : 4);
+            }
+        }
+        for (int row = 1; row < data.length; row += 3) {
+            data[row] = data[row - 1].clone();
+        }
+
+        // Objects
+        time = System.currentTimeMillis();
+        SUDA2Groupify groupify5 = new SUDA2Groupify(data.length);
+        boolean[] ignore5 = new boolean[data.length];
+        for (int row = 0; row < data.length; row++) {
+            ignore5[row] = groupify5.canBeIgnored(data[row]);
+        }
+        System.out.println("Wide, objects: " + (System.currentTimeMillis() - time));
+
+        // Fingerprints
+        time = System.currentTimeMillis();
+        SUDA2GroupifyPrimitive groupify6 = new SUDA2GroupifyPrimitive(data, data.length);
+        boolean[] ignore6 = new boolean[data.length];
+        for (int row = 0; row < data.length; row++) {
+            ignore6[row] = groupify6.canBeIgnored(row);
+        }
+        System.out.println("Wide, fingerprints: " + (System.currentTimeMillis() - time));
+        System.out.println(" - Equal: " + (Arrays.equals(ignore5, ignore6) &&
+                                           groupify5.getNumUniqueRecords() == groupify6.getNumUniqueRecords() &&
+                                           groupify5.getNumDuplicateRecords() == groupify6.getNumDuplicateRecords()));
+    }
+}
@@ -0,0 +1,140 @@
+/*
+ * SUDA2: An implementation of the SUDA2 algorithm for Java
+ * Copyright 2017 Fabian Prasser
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.linearbits.suda2;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.TreeSet;
+
+/**
+ * Compares compressed sets with other implementations of integer sets on clustered
+ * sets with outliers
+ * 
+ * @author Fabian Prasser
+ */
+public class TestSetCompressed {
+
+    /**
+     * Main entry point
+     * @param args
+     */
+    public static void main(String[] args) {
+
+        Random random = new Random(0xDEADBEEF);
+        boolean equal = true;
+        for (int i = 0; i < 10000; i++) {
+
+            // Clustered values with outliers
+            TreeSet<Integer> elements1 = getElements(random);
+            TreeSet<Integer> elements2 = getElements(random);
+            TreeSet<Integer> intersection = new TreeSet<>(elements1);
+            intersection.retainAll(elements2);
+
+            // Sets
+            SUDA2IntSet set1 = new SUDA2IntSetCompressed(getSet(new SUDA2IntSetHash(), elements1, random));
+            SUDA2IntSet set2 = new SUDA2IntSetCompressed(getSet(new SUDA2IntSetHash(), elements2, random));
+            SUDA2IntSet[] others = new SUDA2IntSet[] {
+                    set2,
+                    getSet(new SUDA2IntSetBits(elements2.first(), elements2.last()), elements2, random),
+                    getSet(new SUDA2IntSetBlocks(elements2.first(), elements2.last()), elements2, random),
+                    getSet(new SUDA2IntSetHash(), elements2, random) };
+
+            // Compare
+            equal &= Arrays.equals(set1.toArray(), toArray(elements1));
+            equal &= set1.min() == elements1.first() && set1.max() == elements1.last();
+            for (int value = elements1.first() - 100; value <= elements1.last() + 100; value += 7) {
+                equal &= set1.contains(value) == elements1.contains(value);
+            }
+            for (SUDA2IntSet other : others) {
+                equal &= Arrays.equals(sort(set1.intersectWith(other).toArray()), toArray(intersection));
+                equal &= Arrays.equals(sort(other.intersectWith(set1).toArray()), toArray(intersection));
+                equal &= set1.intersectionSize(other) == intersection.size();
+                equal &= other.intersectionSize(set1) == intersection.size();
+                equal &= set1.isSupportRowPresent(other) == (intersection.size() == 1);
+            }
+        }
+        System.out.println("Equal: " + equal);
+    }
+
+    /**
+     * Returns clustered values with outliers
+     * @param random
+     * @return
+     */
+    private static TreeSet<Integer> getElements(Random random) {
+        TreeSet<Integer> elements = new TreeSet<>();
+        int start = random.nextInt(100000) + 1;
+        int size = random.nextInt(2000) + 1;
+        for (int j = 0; j < size; j++) {
+            elements.add(start + random.nextInt(size * 2));
+        }
+        int outliers = random.nextInt(4);
+        for (int j = 0; j < outliers; j++) {
+            elements.add(random.nextInt(1000000) + 1);
+        }
+        if (random.nextInt(10) == 0) {
+            elements.add(start + size * 2 + 1);
+            elements.add(start + size * 2 + 2);
+        }
+        return elements;
+    }
+
+    /**
+     * Adds the values in random order
+     * @param set
+     * @param elements
+     * @param random
+     * @return
+     */
+    private static SUDA2IntSet getSet(SUDA2IntSet set, TreeSet<Integer> elements, Random random) {
+        int[] values = toArray(elements);
+        for (int i = values.length - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int temp = values[i];
+            values[i] = values[j];
+            values[j] = temp;
+        }
+        for (int value : values) {
+            set.add(value);
+        }
+        return set;
+    }
+
+    /**
+     * Sorts the array
+     * @param array
+     * @return
+     */
+    private static int[] sort(int[] array) {
+        Arrays.sort(array);
+        return array;
+    }
+
+    /**
+     * Converts the set
+     * @param elements
+     * @return
+     */
+    private static int[] toArray(TreeSet<Integer> elements) {
+        int[] result = new int[elements.size()];
+        int index = 0;
+        for (int element : elements) {
+            result[index++] = element;
+        }
+        return result;
+    }
+}
@@ -22,8 +22,12 @@ import java.io.FileReader;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 
+import de.linearbits.suda2.SUDA2;
+import de.linearbits.suda2.SUDA2ListenerMSU;
+
 public class AbstractTest {
 
     /**
@@ -57,6 +61,39 @@ public class AbstractTest {
         }
     }
 
+    /**
+     * Returns the MSUs found by the given instance as sorted pairs of a row and its columns
+     * @param suda2
+     * @param maxK
+     * @return
+     */
+    protected static List<String> getMSUs(SUDA2 suda2, int maxK) {
+        final List<String> result = new ArrayList<>();
+        suda2.getKeys(maxK, new SUDA2ListenerMSU() {
+            @Override
+            public void keyFound(int row, int[] columns, int size) {
+                int[] key = Arrays.copyOf(columns, size);
+                Arrays.sort(key);
+                result.add(row + " " + Arrays.toString(key));
+            }
+        });
+        Collections.sort(result);
+        return result;
+    }
+
+    /**
+     * Prints whether the given instance finds the expected MSUs
+     * @param label
+     * @param expected
+     * @param suda2
+     * @param maxK
+     */
+    protected static void compare(String label, List<String> expected, SUDA2 suda2, int maxK) {
+        List<String> actual = getMSUs(suda2, maxK);
+        System.out.println(label + ": " + actual.size() + " MSUs");
+        System.out.println(" - Equal: " + expected.equals(actual));
+    }
+
     /**
      * Prints the data
      * @param data
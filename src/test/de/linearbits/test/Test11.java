@@ -0,0 +1,73 @@
+/*
+ * SUDA2: An implementation of the SUDA2 algorithm for Java
+ * Copyright 2017 Fabian Prasser
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.linearbits.test;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+import de.linearbits.suda2.SUDA2;
+import de.linearbits.suda2.SUDA2ProjectionCache;
+import de.linearbits.suda2.SUDA2StatisticsKeys;
+import de.linearbits.suda2.SUDA2StatisticsScores;
+
+/**
+ * Test for the projection cache
+ * 
+ * @author Fabian Prasser
+ */
+public class Test11 extends AbstractTest {
+
+    /**
+     * Main entry point
+     * @param args
+     * @throws IOException 
+     */
+    public static void main(String[] args) throws IOException {
+        
+        // As array
+        int[][] data = getData("data/test.csv");
+        
+        // Without cache
+        long time = System.currentTimeMillis();
+        SUDA2StatisticsKeys result1 = new SUDA2(data).getStatisticsKeys(0);
+        System.out.println("Time without cache: " + (System.currentTimeMillis() - time));
+        
+        // With cache
+        SUDA2 suda2 = new SUDA2(data);
+        SUDA2ProjectionCache cache = new SUDA2ProjectionCache(256L * 1024L * 1024L);
+        suda2.setProjectionCache(cache);
+        time = System.currentTimeMillis();
+        SUDA2StatisticsKeys result2 = suda2.getStatisticsKeys(0);
+        System.out.println("Time with cache: " + (System.currentTimeMillis() - time));
+        System.out.println(cache);
+        System.out.println("Equal: " + result1.equals(result2));
+
+        // Repeated execution on the same initial state
+        long hits = cache.getHits();
+        time = System.currentTimeMillis();
+        SUDA2StatisticsScores result3 = suda2.getStatisticsScores(0, true);
+        System.out.println("Time with cache (repeated): " + (System.currentTimeMillis() - time));
+        System.out.println(cache);
+        System.out.println("Equal (repeated): " + Arrays.equals(new SUDA2(data).getStatisticsScores(0, true).getSUDAScores(), result3.getSUDAScores()));
+        System.out.println("Hits (repeated): " + (cache.getHits() > hits));
+
+        // With a small cache
+        suda2.setProjectionCache(new SUDA2ProjectionCache(64L * 1024L));
+        result2 = suda2.getStatisticsKeys(0);
+        System.out.println("Equal (small cache): " + result1.equals(result2));
+    }
+}
@@ -0,0 +1,71 @@
+/*
+ * SUDA2: An implementation of the SUDA2 algorithm for Java
+ * Copyright 2017 Fabian Prasser
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.linearbits.test;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+import de.linearbits.suda2.SUDA2;
+import de.linearbits.suda2.SUDA2StatisticsKeys;
+import de.linearbits.suda2.SUDA2StatisticsScores;
+
+/**
+ * Test for collapsing duplicate records
+ * 
+ * @author Fabian Prasser
+ */
+public class Test12 extends AbstractTest {
+
+    /**
+     * Main entry point
+     * @param args
+     * @throws IOException 
+     */
+    public static void main(String[] args) throws IOException {
+        
+        String[] files = new String[]{
+            "data/test.csv",
+            "data/test4.csv",
+            "data/test7.csv"
+        };
+        
+        for (String file : files) {
+            
+            // Load
+            int[][] data = getData(file);
+            System.out.println("Dataset: " + file + " length: " + data.length);
+            
+            // Records
+            long time = System.currentTimeMillis();
+            SUDA2StatisticsKeys keys1 = new SUDA2(data).getStatisticsKeys(0);
+            SUDA2StatisticsScores scores1 = new SUDA2(data).getStatisticsScores(0, true);
+            System.out.println(" - Records: " + (System.currentTimeMillis() - time));
+            
+            // Equivalence classes
+            time = System.currentTimeMillis();
+            SUDA2 suda2 = new SUDA2(data);
+            suda2.setCollapseDuplicateRecords(true);
+            SUDA2StatisticsKeys keys2 = suda2.getStatisticsKeys(0);
+            SUDA2StatisticsScores scores2 = suda2.getStatisticsScores(0, true);
+            System.out.println(" - Classes: " + (System.currentTimeMillis() - time));
+            
+            // Compare
+            System.out.println(" - Equal keys: " + keys1.equals(keys2));
+            System.out.println(" - Equal scores: " + Arrays.equals(scores1.getSUDAScores(), scores2.getSUDAScores()));
+        }
+    }
+}
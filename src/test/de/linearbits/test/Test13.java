@@ -0,0 +1,84 @@
+/*
+ * SUDA2: An implementation of the SUDA2 algorithm for Java
+ * Copyright 2017 Fabian Prasser
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.linearbits.test;
+
+import java.io.IOException;
+
+import de.linearbits.suda2.SUDA2;
+import de.linearbits.suda2.SUDA2StatisticsColumns;
+import de.linearbits.suda2.SUDA2StatisticsKeys;
+
+/**
+ * Test for merging perfectly correlated items
+ * 
+ * @author Fabian Prasser
+ */
+public class Test13 extends AbstractTest {
+
+    /**
+     * Main entry point
+     * @param args
+     * @throws IOException 
+     */
+    public static void main(String[] args) throws IOException {
+        
+        // Hierarchical codes: column 1 is determined by column 0
+        int[][] data = new int[][] {
+                new int[] { 0, 10, 0, 1 },
+                new int[] { 0, 10, 1, 1 },
+                new int[] { 1, 11, 0, 0 },
+                new int[] { 1, 11, 1, 1 },
+                new int[] { 2, 12, 0, 1 },
+                new int[] { 2, 12, 2, 0 },
+                new int[] { 3, 13, 1, 0 }
+        };
+        compare(data, 0, false);
+        compare(getData("data/test.csv"), 0, false);
+        compare(getData("data/test3.csv"), 4, false);
+        
+        // Supports are weighted by duplicates when they are collapsed
+        compare(getData("data/test.csv"), 0, true);
+    }
+
+    /**
+     * Compares results with and without merging
+     * @param data
+     * @param maxK
+     * @param collapse
+     */
+    private static void compare(int[][] data, int maxK, boolean collapse) {
+        
+        long time = System.currentTimeMillis();
+        SUDA2 suda2 = new SUDA2(data);
+        suda2.setCollapseDuplicateRecords(collapse);
+        SUDA2StatisticsKeys keys1 = suda2.getStatisticsKeys(maxK);
+        SUDA2StatisticsColumns columns1 = suda2.getStatisticsColumns(maxK, true);
+        System.out.println("Without merging: " + (System.currentTimeMillis() - time));
+        
+        for (boolean allLevels : new boolean[] {false, true}) {
+            time = System.currentTimeMillis();
+            suda2 = new SUDA2(data);
+            suda2.setCollapseDuplicateRecords(collapse);
+            suda2.setMergeCorrelatedItems(true, allLevels);
+            SUDA2StatisticsKeys keys2 = suda2.getStatisticsKeys(maxK);
+            SUDA2StatisticsColumns columns2 = suda2.getStatisticsColumns(maxK, true);
+            System.out.println("With merging (all levels: " + allLevels + "): " + (System.currentTimeMillis() - time));
+            System.out.println(" - Equal keys: " + keys1.equals(keys2));
+            System.out.println(" - Equal columns: " + columns1.equals(columns2));
+        }
+    }
+}
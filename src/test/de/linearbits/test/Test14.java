@@ -0,0 +1,128 @@
+/*
+ * SUDA2: An implementation of the SUDA2 algorithm for Java
+ * Copyright 2017 Fabian Prasser
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.linearbits.test;
+
+import java.io.IOException;
+
+import de.linearbits.suda2.SUDA2;
+import de.linearbits.suda2.SUDA2ColumnConstraints;
+import de.linearbits.suda2.SUDA2ListenerMSU;
+
+/**
+ * Test for column constraints
+ * 
+ * @author Fabian Prasser
+ */
+public class Test14 extends AbstractTest {
+
+    /**
+     * Main entry point
+     * @param args
+     * @throws IOException 
+     */
+    public static void main(String[] args) throws IOException {
+        
+        // Load
+        final int[][] data = getData("data/test.csv");
+        
+        // Allowed groups
+        final int[][] groups = new int[][] { { 0, 1, 2, 3 }, { 2, 3, 4, 5 }, { 6, 7, 8 } };
+        
+        // Forbidden combination
+        final int[] forbidden = new int[] { 0, 1 };
+
+        // Expected: all MSUs which satisfy the constraints
+        final long[] expected = new long[1];
+        long time = System.currentTimeMillis();
+        new SUDA2(data).getKeys(0, new SUDA2ListenerMSU() {
+            @Override
+            public void keyFound(int row, int[] columns, int size) {
+                if (isAllowed(columns, size, groups, forbidden)) {
+                    expected[0]++;
+                }
+            }
+        });
+        System.out.println("Without constraints: " + (System.currentTimeMillis() - time));
+        
+        // With constraints
+        SUDA2ColumnConstraints constraints = new SUDA2ColumnConstraints();
+        for (int[] group : groups) {
+            constraints.addAllowedGroup(group);
+        }
+        constraints.addForbiddenCombination(forbidden);
+        final long[] actual = new long[2];
+        time = System.currentTimeMillis();
+        SUDA2 suda2 = new SUDA2(data);
+        suda2.setColumnConstraints(constraints);
+        suda2.getKeys(0, new SUDA2ListenerMSU() {
+            @Override
+            public void keyFound(int row, int[] columns, int size) {
+                actual[0]++;
+                if (!isAllowed(columns, size, groups, forbidden)) {
+                    actual[1]++;
+                }
+            }
+        });
+        System.out.println("With constraints: " + (System.currentTimeMillis() - time));
+        System.out.println(" - Expected keys: " + expected[0]);
+        System.out.println(" - Found keys: " + actual[0]);
+        System.out.println(" - Keys violating constraints: " + actual[1]);
+    }
+
+    /**
+     * Returns whether the key satisfies the constraints
+     * @param columns
+     * @param size
+     * @param groups
+     * @param forbidden
+     * @return
+     */
+    private static boolean isAllowed(int[] columns, int size, int[][] groups, int[] forbidden) {
+        if (contains(forbidden, columns, size)) {
+            return false;
+        }
+        for (int[] group : groups) {
+            boolean contained = true;
+            for (int i = 0; i < size; i++) {
+                contained &= contains(new int[] { columns[i] }, group, group.length);
+            }
+            if (contained) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns whether all elements of the first array are contained in the second array
+     * @param elements
+     * @param array
+     * @param size
+     * @return
+     */
+    private static boolean contains(int[] elements, int[] array, int size) {
+        outer: for (int element : elements) {
+            for (int i = 0; i < size; i++) {
+                if (array[i] == element) {
+                    continue outer;
+                }
+            }
+            return false;
+        }
+        return true;
+    }
+}
@@ -0,0 +1,93 @@
+/*
+ * SUDA2: An implementation of the SUDA2 algorithm for Java
+ * Copyright 2017 Fabian Prasser
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.linearbits.test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import de.linearbits.suda2.SUDA2;
+import de.linearbits.suda2.SUDA2Batch;
+import de.linearbits.suda2.SUDA2StatisticsKeys;
+import de.linearbits.suda2.SUDA2StatisticsScores;
+
+/**
+ * Test for batch execution on subsets of columns
+ * 
+ * @author Fabian Prasser
+ */
+public class Test15 extends AbstractTest {
+
+    /**
+     * Main entry point
+     * @param args
+     * @throws IOException 
+     */
+    public static void main(String[] args) throws IOException {
+        
+        // Load
+        int[][] data = getData("data/test.csv");
+        
+        // Subsets
+        List<int[]> subsets = new ArrayList<>();
+        for (int i = 0; i < data[0].length; i++) {
+            int[] subset = new int[data[0].length - 1];
+            int index = 0;
+            for (int column = 0; column < data[0].length; column++) {
+                if (column != i) {
+                    subset[index++] = column;
+                }
+            }
+            subsets.add(subset);
+        }
+        subsets.add(new int[] { 8, 3, 1 });
+        
+        // Individual executions
+        long time = System.currentTimeMillis();
+        List<SUDA2StatisticsKeys> keys1 = new ArrayList<>();
+        List<SUDA2StatisticsScores> scores1 = new ArrayList<>();
+        for (int[] subset : subsets) {
+            int[][] projected = new int[data.length][subset.length];
+            for (int row = 0; row < data.length; row++) {
+                for (int i = 0; i < subset.length; i++) {
+                    projected[row][i] = data[row][subset[i]];
+                }
+            }
+            keys1.add(new SUDA2(projected).getStatisticsKeys(0));
+            scores1.add(new SUDA2(projected).getStatisticsScores(0, true));
+        }
+        System.out.println("Individual executions: " + (System.currentTimeMillis() - time));
+        
+        // Batch execution
+        time = System.currentTimeMillis();
+        SUDA2Batch batch = new SUDA2Batch(data);
+        List<SUDA2StatisticsKeys> keys2 = batch.getStatisticsKeys(subsets, 0);
+        List<SUDA2StatisticsScores> scores2 = batch.getStatisticsScores(subsets, 0, true);
+        System.out.println("Batch execution: " + (System.currentTimeMillis() - time));
+        
+        // Compare
+        boolean equal = true;
+        for (int i = 0; i < subsets.size(); i++) {
+            equal &= keys1.get(i).equals(keys2.get(i));
+            equal &= scores1.get(i).getNumKeys() == scores2.get(i).getNumKeys();
+            equal &= Math.abs(scores1.get(i).getAverageScore() - scores2.get(i).getAverageScore()) < 1e-9;
+            equal &= Arrays.equals(scores1.get(i).getSUDAScores(), scores2.get(i).getSUDAScores());
+        }
+        System.out.println(" - Equal: " + equal);
+    }
+}
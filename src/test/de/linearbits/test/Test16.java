@@ -0,0 +1,105 @@
+/*
+ * SUDA2: An implementation of the SUDA2 algorithm for Java
+ * Copyright 2017 Fabian Prasser
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.linearbits.test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import de.linearbits.suda2.SUDA2;
+import de.linearbits.suda2.SUDA2Lattice;
+import de.linearbits.suda2.SUDA2StatisticsKeys;
+
+/**
+ * Test for deriving the items of generalized datasets
+ *
+ * @author Fabian Prasser
+ */
+public class Test16 extends AbstractTest {
+
+    /** Number of levels per hierarchy */
+    private static final int LEVELS = 4;
+
+    /**
+     * Main entry point
+     * @param args
+     * @throws IOException
+     */
+    public static void main(String[] args) throws IOException {
+
+        // Load
+        int[][] data = getData("data/test.csv");
+        int columns = data[0].length;
+
+        // Hierarchies which halve the domain on each level
+        int[][][] hierarchies = new int[columns][][];
+        for (int column = 0; column < columns; column++) {
+            int max = 0;
+            for (int[] row : data) {
+                max = Math.max(max, row[column]);
+            }
+            hierarchies[column] = new int[max + 1][LEVELS];
+            for (int value = 0; value <= max; value++) {
+                for (int level = 0; level < LEVELS; level++) {
+                    hierarchies[column][value][level] = value >> level;
+                }
+            }
+        }
+
+        // Generalization vectors, in the order in which they would be visited bottom-up
+        List<int[]> vectors = new ArrayList<>();
+        for (int level = 0; level < LEVELS; level++) {
+            for (int column = 0; column < columns; column++) {
+                int[] vector = new int[columns];
+                for (int i = 0; i < columns; i++) {
+                    vector[i] = i <= column ? level : Math.max(0, level - 1);
+                }
+                vectors.add(vector);
+            }
+        }
+
+        // Individual executions
+        long time = System.currentTimeMillis();
+        List<SUDA2StatisticsKeys> keys1 = new ArrayList<>();
+        for (int[] vector : vectors) {
+            int[][] generalized = new int[data.length][columns];
+            for (int row = 0; row < data.length; row++) {
+                for (int column = 0; column < columns; column++) {
+                    generalized[row][column] = hierarchies[column][data[row][column]][vector[column]];
+                }
+            }
+            keys1.add(new SUDA2(generalized).getStatisticsKeys(0));
+        }
+        System.out.println("Individual executions: " + (System.currentTimeMillis() - time));
+
+        // Derived executions
+        time = System.currentTimeMillis();
+        SUDA2Lattice lattice = new SUDA2Lattice(data, hierarchies);
+        List<SUDA2StatisticsKeys> keys2 = new ArrayList<>();
+        for (int[] vector : vectors) {
+            keys2.add(lattice.getInstance(vector).getStatisticsKeys(0));
+        }
+        System.out.println("Derived executions: " + (System.currentTimeMillis() - time));
+
+        // Compare
+        boolean equal = true;
+        for (int i = 0; i < vectors.size(); i++) {
+            equal &= keys1.get(i).equals(keys2.get(i));
+        }
+        System.out.println(" - Equal: " + equal);
+    }
+}
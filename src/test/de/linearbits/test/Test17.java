@@ -0,0 +1,66 @@
+/*
+ * SUDA2: An implementation of the SUDA2 algorithm for Java
+ * Copyright 2017 Fabian Prasser
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.linearbits.test;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Arrays;
+
+import de.linearbits.suda2.SUDA2;
+import de.linearbits.suda2.SUDA2StatisticsScores;
+
+/**
+ * Test for time-budgeted executions
+ *
+ * @author Fabian Prasser
+ */
+public class Test17 extends AbstractTest {
+
+    /**
+     * Main entry point
+     * @param args
+     * @throws IOException
+     */
+    public static void main(String[] args) throws IOException {
+
+        // Load
+        int[][] data = getData("data/test.csv");
+
+        // Unbounded execution
+        long time = System.currentTimeMillis();
+        SUDA2StatisticsScores scores1 = new SUDA2(data).getStatisticsScores(0, true);
+        System.out.println("Unbounded execution: " + (System.currentTimeMillis() - time));
+
+        // Execution with sufficient budget
+        time = System.currentTimeMillis();
+        SUDA2StatisticsScores scores2 = new SUDA2(data).getStatisticsScores(0, true, Duration.ofMinutes(10));
+        System.out.println("Budgeted execution: " + (System.currentTimeMillis() - time));
+        System.out.println(" - Complete: " + scores2.isComplete());
+        System.out.println(" - Equal: " + (scores1.getNumKeys() == scores2.getNumKeys() &&
+                                           Math.abs(scores1.getAverageScore() - scores2.getAverageScore()) < 1e-9));
+        System.out.println(" - Equal SUDA scores: " + Arrays.equals(scores1.getSUDAScores(), scores2.getSUDAScores()));
+        System.out.println(" - Equal DIS scores: " + Arrays.equals(scores1.getDISScores(0.1d), scores2.getDISScores(0.1d)));
+
+        // Execution with insufficient budget
+        time = System.currentTimeMillis();
+        SUDA2StatisticsScores scores3 = new SUDA2(data).getStatisticsScores(0, true, Duration.ofMillis(200));
+        System.out.println("Budgeted execution: " + (System.currentTimeMillis() - time));
+        System.out.println(" - Complete: " + scores3.isComplete());
+        System.out.println(" - Complete up to: " + scores3.getMaxCompleteKeyLength() + " of " + scores3.getMaxKeyLengthConsidered());
+        System.out.println(" - Keys found: " + scores3.getNumKeys() + " of " + scores1.getNumKeys());
+    }
+}
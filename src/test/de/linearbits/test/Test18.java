@@ -0,0 +1,74 @@
+/*
+ * SUDA2: An implementation of the SUDA2 algorithm for Java
+ * Copyright 2017 Fabian Prasser
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.linearbits.test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import de.linearbits.suda2.SUDA2;
+import de.linearbits.suda2.SUDA2StatisticsKeys;
+import de.linearbits.suda2.SUDA2StatisticsScores;
+
+/**
+ * Test for sweeping over maximal key lengths
+ *
+ * @author Fabian Prasser
+ */
+public class Test18 extends AbstractTest {
+
+    /** Maximal key length */
+    private static final int MAX_K = 6;
+
+    /**
+     * Main entry point
+     * @param args
+     * @throws IOException
+     */
+    public static void main(String[] args) throws IOException {
+
+        // Load
+        int[][] data = getData("data/test.csv");
+
+        // Individual executions
+        long time = System.currentTimeMillis();
+        List<SUDA2StatisticsKeys> keys1 = new ArrayList<>();
+        List<SUDA2StatisticsScores> scores1 = new ArrayList<>();
+        for (int k = 1; k <= MAX_K; k++) {
+            keys1.add(new SUDA2(data).getStatisticsKeys(k));
+            scores1.add(new SUDA2(data).getStatisticsScores(k, true));
+        }
+        System.out.println("Individual executions: " + (System.currentTimeMillis() - time));
+
+        // Sweep
+        time = System.currentTimeMillis();
+        List<SUDA2StatisticsKeys> keys2 = new SUDA2(data).getStatisticsKeysSweep(MAX_K);
+        List<SUDA2StatisticsScores> scores2 = new SUDA2(data).getStatisticsScoresSweep(MAX_K, true);
+        System.out.println("Sweep: " + (System.currentTimeMillis() - time));
+
+        // Compare
+        boolean equal = keys2.size() == MAX_K && scores2.size() == MAX_K;
+        for (int i = 0; equal && i < MAX_K; i++) {
+            equal &= keys1.get(i).equals(keys2.get(i));
+            equal &= scores1.get(i).getNumKeys() == scores2.get(i).getNumKeys();
+            equal &= Math.abs(scores1.get(i).getAverageScore() - scores2.get(i).getAverageScore()) < 1e-9;
+            equal &= Arrays.equals(scores1.get(i).getSUDAScores(), scores2.get(i).getSUDAScores());
+        }
+        System.out.println(" - Equal: " + equal);
+    }
+}
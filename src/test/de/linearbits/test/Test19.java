@@ -0,0 +1,128 @@
+/*
+ * SUDA2: An implementation of the SUDA2 algorithm for Java
+ * Copyright 2017 Fabian Prasser
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.linearbits.test;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+
+import de.linearbits.suda2.SUDA2;
+import de.linearbits.suda2.SUDA2ColumnConstraints;
+import de.linearbits.suda2.SUDA2Exception;
+import de.linearbits.suda2.SUDA2ListenerProgress;
+import de.linearbits.suda2.SUDA2StatisticsKeys;
+import de.linearbits.suda2.SUDA2StatisticsScores;
+
+/**
+ * Test for checkpoints
+ *
+ * @author Fabian Prasser
+ */
+public class Test19 extends AbstractTest {
+
+    /**
+     * Main entry point
+     * @param args
+     * @throws IOException
+     */
+    public static void main(String[] args) throws IOException {
+
+        // Load
+        int[][] data = getData("data/test.csv");
+        File file = File.createTempFile("suda2", ".checkpoint");
+        file.delete();
+
+        // Uninterrupted executions
+        SUDA2StatisticsKeys keys1 = new SUDA2(data).getStatisticsKeys(0);
+        SUDA2StatisticsScores scores1 = new SUDA2(data).getStatisticsScores(0, true);
+
+        // Interrupted and resumed executions
+        SUDA2StatisticsKeys keys2 = null;
+        SUDA2StatisticsScores scores2 = null;
+        for (int i = 0; i < 2; i++) {
+
+            // Stop halfway through
+            final SUDA2 suda2 = new SUDA2(data);
+            suda2.setCheckpoint(file, 100);
+            suda2.setProgressListener(new SUDA2ListenerProgress() {
+                @Override
+                public void update(double progress) {
+                    if (progress > 0.5d) {
+                        suda2.stop();
+                    }
+                }
+            });
+            try {
+                if (i == 0) {
+                    suda2.getStatisticsKeys(0);
+                } else {
+                    suda2.getStatisticsScores(0, true);
+                }
+            } catch (SUDA2Exception e) {
+                System.out.println("Stopped, checkpoint exists: " + file.exists());
+            }
+
+            // Resume
+            SUDA2 resumed = new SUDA2(data);
+            resumed.setCheckpoint(file, 100);
+            long time = System.currentTimeMillis();
+            if (i == 0) {
+                keys2 = resumed.getStatisticsKeys(0);
+            } else {
+                scores2 = resumed.getStatisticsScores(0, true);
+            }
+            System.out.println("Resumed: " + (System.currentTimeMillis() - time) + ", checkpoint exists: " + file.exists());
+        }
+
+        // Compare
+        boolean equal = keys1.equals(keys2);
+        equal &= scores1.getNumKeys() == scores2.getNumKeys();
+        equal &= scores1.getAverageScore() == scores2.getAverageScore();
+        equal &= Arrays.equals(scores1.getSUDAScores(), scores2.getSUDAScores());
+        System.out.println(" - Equal: " + equal);
+
+        // Stop with column constraints
+        final SUDA2 suda2 = new SUDA2(data);
+        SUDA2ColumnConstraints constraints = new SUDA2ColumnConstraints();
+        constraints.addAllowedGroup(0, 1, 2, 3, 4);
+        suda2.setColumnConstraints(constraints);
+        suda2.setCheckpoint(file, 100);
+        suda2.setProgressListener(new SUDA2ListenerProgress() {
+            @Override
+            public void update(double progress) {
+                if (progress > 0.5d) {
+                    suda2.stop();
+                }
+            }
+        });
+        try {
+            suda2.getStatisticsKeys(0);
+        } catch (SUDA2Exception e) {
+            System.out.println("Stopped, checkpoint exists: " + file.exists());
+        }
+
+        // A checkpoint written with different constraints must not be resumed from
+        constraints = new SUDA2ColumnConstraints();
+        constraints.addAllowedGroup(2, 3, 4, 5, 6);
+        SUDA2 expected = new SUDA2(data);
+        expected.setColumnConstraints(constraints);
+        SUDA2 resumed = new SUDA2(data);
+        resumed.setColumnConstraints(constraints);
+        resumed.setCheckpoint(file, 100);
+        System.out.println(" - Equal (other constraints): " + expected.getStatisticsKeys(0).equals(resumed.getStatisticsKeys(0)));
+    }
+}
@@ -0,0 +1,105 @@
+/*
+ * SUDA2: An implementation of the SUDA2 algorithm for Java
+ * Copyright 2017 Fabian Prasser
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.linearbits.test;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+
+import de.linearbits.suda2.SUDA2;
+import de.linearbits.suda2.SUDA2Coordinator;
+import de.linearbits.suda2.SUDA2StatisticsKeys;
+import de.linearbits.suda2.SUDA2StatisticsScores;
+import de.linearbits.suda2.SUDA2Worker;
+
+/**
+ * Test for executions by multiple worker processes. Starts one worker in this process
+ * and one worker in a separate process.
+ *
+ * @author Fabian Prasser
+ */
+public class Test20 extends AbstractTest {
+
+    /** Data */
+    private static final String FILE = "data/test.csv";
+
+    /**
+     * Main entry point
+     * @param args
+     * @throws IOException
+     */
+    public static void main(String[] args) throws IOException {
+
+        // Worker process
+        if (args.length == 2 && args[0].equals("worker")) {
+            new SUDA2Worker(getData(FILE)).run("localhost", Integer.valueOf(args[1]));
+            return;
+        }
+
+        // Load
+        final int[][] data = getData(FILE);
+
+        // Single execution
+        long time = System.currentTimeMillis();
+        SUDA2StatisticsKeys keys1 = new SUDA2(data).getStatisticsKeys(0);
+        SUDA2StatisticsScores scores1 = new SUDA2(data).getStatisticsScores(0, true);
+        System.out.println("Single execution: " + (System.currentTimeMillis() - time));
+
+        // Coordinator and workers
+        final SUDA2Coordinator coordinator = new SUDA2Coordinator(data, 0);
+        try {
+            Thread thread = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        new SUDA2Worker(data).run("localhost", coordinator.getPort());
+                    } catch (IOException e) {
+                        throw new RuntimeException(e);
+                    }
+                }
+            });
+            thread.start();
+            String java = System.getProperty("java.home") + File.separator + "bin" + File.separator + "java";
+            Process process = new ProcessBuilder(java, "-cp", System.getProperty("java.class.path"),
+                                                 Test20.class.getName(), "worker", String.valueOf(coordinator.getPort())).inheritIO().start();
+            coordinator.awaitWorkers(2);
+
+            // Execute
+            time = System.currentTimeMillis();
+            SUDA2StatisticsKeys keys2 = coordinator.getStatisticsKeys(0);
+            SUDA2StatisticsScores scores2 = coordinator.getStatisticsScores(0, true);
+            System.out.println("Distributed execution: " + (System.currentTimeMillis() - time));
+
+            // Release workers
+            coordinator.close();
+            thread.join();
+            process.waitFor();
+
+            // Compare
+            boolean equal = keys1.equals(keys2);
+            equal &= scores1.getNumKeys() == scores2.getNumKeys();
+            equal &= Math.abs(scores1.getAverageScore() - scores2.getAverageScore()) < 1e-9;
+            equal &= Arrays.equals(scores1.getSUDAScores(), scores2.getSUDAScores());
+            equal &= Arrays.equals(scores1.getDISScores(0.1d), scores2.getDISScores(0.1d));
+            System.out.println(" - Equal: " + equal);
+        } catch (InterruptedException e) {
+            throw new RuntimeException(e);
+        } finally {
+            coordinator.close();
+        }
+    }
+}
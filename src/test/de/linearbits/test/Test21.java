@@ -0,0 +1,72 @@
+/*
+ * SUDA2: An implementation of the SUDA2 algorithm for Java
+ * Copyright 2017 Fabian Prasser
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.linearbits.test;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+import de.linearbits.suda2.SUDA2;
+import de.linearbits.suda2.SUDA2StatisticsKeys;
+import de.linearbits.suda2.SUDA2StatisticsScores;
+
+/**
+ * Test for building the initial state with multiple threads
+ *
+ * @author Fabian Prasser
+ */
+public class Test21 extends AbstractTest {
+
+    /**
+     * Main entry point
+     * @param args
+     * @throws IOException
+     */
+    public static void main(String[] args) throws IOException {
+
+        // Load
+        int[][] data = getData("data/test.csv");
+
+        // Compare, also when collapsing duplicates
+        for (boolean collapse : new boolean[] { false, true }) {
+
+            // Single thread
+            SUDA2 suda2 = new SUDA2(data);
+            suda2.setCollapseDuplicateRecords(collapse);
+            SUDA2StatisticsKeys keys1 = suda2.getStatisticsKeys(4);
+            SUDA2StatisticsScores scores1 = suda2.getStatisticsScores(4, true);
+
+            // Multiple threads, also when grouping records in primitive arrays
+            for (int threads : new int[] { 1, 3 }) {
+                for (boolean primitive : new boolean[] { false, true }) {
+                    suda2 = new SUDA2(data);
+                    suda2.setCollapseDuplicateRecords(collapse);
+                    suda2.setThreads(threads);
+                    suda2.setPrimitiveGroupify(primitive);
+                    SUDA2StatisticsKeys keys2 = suda2.getStatisticsKeys(4);
+                    SUDA2StatisticsScores scores2 = suda2.getStatisticsScores(4, true);
+        
+                    // Compare
+                    boolean equal = keys1.equals(keys2);
+                    equal &= scores1.getNumKeys() == scores2.getNumKeys();
+                    equal &= Math.abs(scores1.getAverageScore() - scores2.getAverageScore()) < 1e-9;
+                    equal &= Arrays.equals(scores1.getSUDAScores(), scores2.getSUDAScores());
+                    System.out.println("Collapse: " + collapse + ", threads: " + threads + ", primitive: " + primitive + " - Equal: " + equal);
+                }
+            }
+        }
+    }
+}
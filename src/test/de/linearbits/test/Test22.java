@@ -0,0 +1,71 @@
+/*
+ * SUDA2: An implementation of the SUDA2 algorithm for Java
+ * Copyright 2017 Fabian Prasser
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.linearbits.test;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+import de.linearbits.suda2.SUDA2;
+import de.linearbits.suda2.SUDA2StatisticsKeys;
+import de.linearbits.suda2.SUDA2StatisticsScores;
+
+/**
+ * Test for diffsets
+ *
+ * @author Fabian Prasser
+ */
+public class Test22 extends AbstractTest {
+
+    /**
+     * Main entry point
+     * @param args
+     * @throws IOException
+     */
+    public static void main(String[] args) throws IOException {
+
+        // Dense and sparse data
+        for (String file : new String[] { "data/test3.csv", "data/test.csv" }) {
+
+            // Load
+            int[][] data = getData(file);
+            System.out.println("File: " + file);
+
+            // Without diffsets
+            long time = System.currentTimeMillis();
+            SUDA2StatisticsKeys keys1 = new SUDA2(data).getStatisticsKeys(5);
+            System.out.println(" - Rows: " + (System.currentTimeMillis() - time));
+            SUDA2StatisticsScores scores1 = new SUDA2(data).getStatisticsScores(5, true);
+
+            // With diffsets from different depths
+            for (int depth = 1; depth <= 3; depth++) {
+                SUDA2 suda2 = new SUDA2(data);
+                suda2.setDiffsetDepth(depth);
+                time = System.currentTimeMillis();
+                SUDA2StatisticsKeys keys2 = suda2.getStatisticsKeys(5);
+                System.out.println(" - Diffsets from depth " + depth + ": " + (System.currentTimeMillis() - time));
+                SUDA2StatisticsScores scores2 = suda2.getStatisticsScores(5, true);
+
+                // Compare
+                boolean equal = keys1.equals(keys2);
+                equal &= scores1.getNumKeys() == scores2.getNumKeys();
+                equal &= Math.abs(scores1.getAverageScore() - scores2.getAverageScore()) < 1e-9;
+                equal &= Arrays.equals(scores1.getSUDAScores(), scores2.getSUDAScores());
+                System.out.println("   Equal: " + equal);
+            }
+        }
+    }
+}
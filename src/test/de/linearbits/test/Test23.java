@@ -0,0 +1,54 @@
+/*
+ * SUDA2: An implementation of the SUDA2 algorithm for Java
+ * Copyright 2017 Fabian Prasser
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.linearbits.test;
+
+import java.io.IOException;
+import java.util.List;
+
+import de.linearbits.suda2.SUDA2;
+import de.linearbits.suda2.SUDA2ItemOrder;
+
+/**
+ * Test for projections taken from a prefix tree. The tree is built over the items of the
+ * first level in the order in which they are processed, so all orders are compared.
+ *
+ * @author Fabian Prasser
+ */
+public class Test23 extends AbstractTest {
+
+    /**
+     * Main entry point
+     * @param args
+     * @throws IOException
+     */
+    public static void main(String[] args) throws IOException {
+
+        // Load
+        int[][] data = getData("data/test.csv");
+
+        // Compare for each order of items
+        for (SUDA2ItemOrder order : SUDA2ItemOrder.values()) {
+            SUDA2 suda2 = new SUDA2(data);
+            suda2.setItemOrder(order);
+            List<String> expected = getMSUs(suda2, 0);
+            suda2 = new SUDA2(data);
+            suda2.setItemOrder(order);
+            suda2.setPrefixTree(true);
+            compare("Prefix tree, " + order, expected, suda2, 0);
+        }
+    }
+}
@@ -0,0 +1,95 @@
+/*
+ * SUDA2: An implementation of the SUDA2 algorithm for Java
+ * Copyright 2017 Fabian Prasser
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.linearbits.test;
+
+import java.io.IOException;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import de.linearbits.suda2.SUDA2;
+
+/**
+ * Test for searching special rows in packed rows. Records are packed into one word, into two
+ * words and, if they are too wide for two words, not at all.
+ *
+ * @author Fabian Prasser
+ */
+public class Test24 extends AbstractTest {
+
+    /**
+     * Main entry point
+     * @param args
+     * @throws IOException
+     */
+    public static void main(String[] args) throws IOException {
+
+        // Load
+        int[][] data = getData("data/test.csv");
+
+        // Compare records of increasing width
+        int[] copies = { 1, 2, 4 };
+        int[] maxK = { 0, 3, 2 };
+        for (int i = 0; i < copies.length; i++) {
+            int[][] wide = getData(data, copies[i]);
+            List<String> expected = getMSUs(new SUDA2(wide), maxK[i]);
+            SUDA2 suda2 = new SUDA2(wide);
+            suda2.setPackedRows(true);
+            compare("Packed rows, " + getBits(wide) + " bits per record", expected, suda2, maxK[i]);
+        }
+    }
+
+    /**
+     * Returns the number of bits needed to pack a record, if each column occupies as many bits 
+     * as needed to encode the ids of its values
+     * @param data
+     * @return
+     */
+    private static int getBits(int[][] data) {
+        int bits = 0;
+        for (int column = 0; column < data[0].length; column++) {
+            Set<Integer> values = new HashSet<>();
+            for (int[] row : data) {
+                values.add(row[column]);
+            }
+            bits += Math.max(1, 32 - Integer.numberOfLeadingZeros(values.size() - 1));
+        }
+        return bits;
+    }
+
+    /**
+     * Returns data in which each record is followed by the values of the given number of 
+     * subsequent records minus one and by the parity of its index
+     * @param data
+     * @param copies
+     * @return
+     */
+    private static int[][] getData(int[][] data, int copies) {
+        if (copies == 1) {
+            return data;
+        }
+        int columns = data[0].length;
+        int[][] result = new int[data.length][columns * copies + 1];
+        for (int i = 0; i < data.length; i++) {
+            for (int copy = 0; copy < copies; copy++) {
+                System.arraycopy(data[(i + copy) % data.length], 0, result[i], copy * columns, columns);
+            }
+            result[i][columns * copies] = i % 2;
+        }
+        return result;
+    }
+}
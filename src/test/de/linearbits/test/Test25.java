@@ -0,0 +1,104 @@
+/*
+ * SUDA2: An implementation of the SUDA2 algorithm for Java
+ * Copyright 2017 Fabian Prasser
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.linearbits.test;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import de.linearbits.suda2.SUDA2;
+import de.linearbits.suda2.SUDA2ListenerMSU;
+
+/**
+ * Test for verifying candidates sharing a pivot at once. Candidates are only verified at once
+ * in groups of at least 16, so the size of the largest group of MSUs sharing a reference item
+ * and a pivot on the first level is reported as well.
+ *
+ * @author Fabian Prasser
+ */
+public class Test25 extends AbstractTest {
+
+    /**
+     * Main entry point
+     * @param args
+     * @throws IOException
+     */
+    public static void main(String[] args) throws IOException {
+
+        // Load
+        int[][] data = getData("data/test.csv");
+        System.out.println("Largest group: " + getLargestGroup(data));
+
+        // Compare, also when collapsing duplicates
+        for (boolean collapse : new boolean[] { false, true }) {
+            SUDA2 suda2 = new SUDA2(data);
+            suda2.setCollapseDuplicateRecords(collapse);
+            List<String> expected = getMSUs(suda2, 0);
+            suda2 = new SUDA2(data);
+            suda2.setCollapseDuplicateRecords(collapse);
+            suda2.setBulkVerification(true);
+            compare("Bulk verification, collapsed duplicates: " + collapse, expected, suda2, 0);
+        }
+    }
+
+    /**
+     * Returns the size of the largest group of MSUs found on the first level, which share the
+     * reference item and the item with the lowest support
+     * @param data
+     * @return
+     */
+    private static int getLargestGroup(final int[][] data) {
+
+        // Supports
+        final Map<String, Integer> supports = new HashMap<>();
+        for (int[] row : data) {
+            for (int column = 0; column < row.length; column++) {
+                String item = column + "=" + row[column];
+                Integer support = supports.get(item);
+                supports.put(item, support == null ? 1 : support + 1);
+            }
+        }
+
+        // Group MSUs. The reference item is reported last.
+        final Map<String, Integer> groups = new HashMap<>();
+        new SUDA2(data).getKeys(0, new SUDA2ListenerMSU() {
+            @Override
+            public void keyFound(int row, int[] columns, int size) {
+                if (size < 3) {
+                    return;
+                }
+                String pivot = null;
+                for (int i = 0; i < size - 1; i++) {
+                    String item = columns[i] + "=" + data[row][columns[i]];
+                    if (pivot == null || supports.get(item) < supports.get(pivot)) {
+                        pivot = item;
+                    }
+                }
+                String group = Arrays.asList(columns[size - 1], data[row][columns[size - 1]], pivot).toString();
+                Integer count = groups.get(group);
+                groups.put(group, count == null ? 1 : count + 1);
+            }
+        });
+        int result = 0;
+        for (int count : groups.values()) {
+            result = Math.max(result, count);
+        }
+        return result;
+    }
+}
@@ -0,0 +1,71 @@
+/*
+ * SUDA2: An implementation of the SUDA2 algorithm for Java
+ * Copyright 2017 Fabian Prasser
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.linearbits.test;
+
+import java.io.IOException;
+import java.util.List;
+
+import de.linearbits.suda2.SUDA2;
+import de.linearbits.suda2.SUDA2ColumnConstraints;
+
+/**
+ * Test for reordering rows before they are registered. MSUs must be reported for the
+ * rows of the original data.
+ *
+ * @author Fabian Prasser
+ */
+public class Test26 extends AbstractTest {
+
+    /**
+     * Main entry point
+     * @param args
+     * @throws IOException
+     */
+    public static void main(String[] args) throws IOException {
+
+        // Load
+        int[][] data = getData("data/test.csv");
+        SUDA2ColumnConstraints constraints = new SUDA2ColumnConstraints();
+        constraints.addAllowedGroup(new int[] { 0, 1, 2, 3, 4 });
+        constraints.addAllowedGroup(new int[] { 3, 4, 5, 6, 7, 8 });
+
+        // Compare, also when collapsing duplicates and with column constraints
+        for (int mode = 0; mode < 3; mode++) {
+            List<String> expected = getMSUs(getInstance(data, mode, constraints), 0);
+            SUDA2 suda2 = getInstance(data, mode, constraints);
+            suda2.setReorderRows(true);
+            compare("Mode " + mode + ", reordered rows", expected, suda2, 0);
+        }
+    }
+
+    /**
+     * Returns an instance for the given mode
+     * @param data
+     * @param mode
+     * @param constraints
+     * @return
+     */
+    private static SUDA2 getInstance(int[][] data, int mode, SUDA2ColumnConstraints constraints) {
+        SUDA2 suda2 = new SUDA2(data);
+        if (mode == 1) {
+            suda2.setCollapseDuplicateRecords(true);
+        } else if (mode == 2) {
+            suda2.setColumnConstraints(constraints);
+        }
+        return suda2;
+    }
+}
@@ -0,0 +1,83 @@
+/*
+ * SUDA2: An implementation of the SUDA2 algorithm for Java
+ * Copyright 2017 Fabian Prasser
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.linearbits.test;
+
+import java.io.IOException;
+
+import de.linearbits.suda2.SUDA2;
+import de.linearbits.suda2.SUDA2ItemOrder;
+import de.linearbits.suda2.SUDA2ListenerProgress;
+import de.linearbits.suda2.SUDA2StatisticsKeys;
+
+/**
+ * Benchmark of the policies for ordering items with equal support
+ *
+ * @author Fabian Prasser
+ */
+public class Test27 extends AbstractTest {
+
+    /** Repetitions */
+    private static final int REPETITIONS = 3;
+
+    /**
+     * Main entry point
+     * @param args
+     * @throws IOException
+     */
+    public static void main(String[] args) throws IOException {
+
+        // For each dataset
+        for (String file : new String[] { "data/test.csv", "data/test3.csv", "data/test4.csv" }) {
+
+            // Load
+            int[][] data = getData(file);
+            System.out.println(file);
+            SUDA2StatisticsKeys reference = null;
+
+            // For each policy
+            for (SUDA2ItemOrder order : SUDA2ItemOrder.values()) {
+
+                // Count nodes and measure the best of multiple runs
+                final long[] nodes = new long[1];
+                long time = Long.MAX_VALUE;
+                SUDA2StatisticsKeys keys = null;
+                for (int i = 0; i < REPETITIONS; i++) {
+                    nodes[0] = 0;
+                    SUDA2 suda2 = new SUDA2(data);
+                    suda2.setItemOrder(order);
+                    suda2.setProgressListener(new SUDA2ListenerProgress() {
+                        @Override
+                        public void tick() {
+                            nodes[0]++;
+                        }
+                        @Override
+                        public void update(double progress) {
+                            // Empty by design
+                        }
+                    });
+                    long start = System.currentTimeMillis();
+                    keys = suda2.getStatisticsKeys(0);
+                    time = Math.min(time, System.currentTimeMillis() - start);
+                }
+
+                // Compare
+                reference = reference == null ? keys : reference;
+                System.out.println(" - " + order + ": nodes: " + nodes[0] + ", time: " + time + ", equal: " + reference.equals(keys));
+            }
+        }
+    }
+}
@@ -0,0 +1,69 @@
+/*
+ * SUDA2: An implementation of the SUDA2 algorithm for Java
+ * Copyright 2017 Fabian Prasser
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.linearbits.test;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+import de.linearbits.suda2.SUDA2;
+
+/**
+ * Test for compressing the rows of the items of the original table. Rows are compressed when the
+ * initial state is built sequentially and in parallel. In sorted data, the rows of items form
+ * runs, so that intersections skip many chunks.
+ *
+ * @author Fabian Prasser
+ */
+public class Test28 extends AbstractTest {
+
+    /**
+     * Main entry point
+     * @param args
+     * @throws IOException
+     */
+    public static void main(String[] args) throws IOException {
+
+        // Load
+        int[][] data = getData("data/test.csv");
+        int[][] sorted = data.clone();
+        Arrays.sort(sorted, new Comparator<int[]>() {
+            @Override
+            public int compare(int[] o1, int[] o2) {
+                for (int i = 0; i < o1.length; i++) {
+                    int cmp = Integer.compare(o1[i], o2[i]);
+                    if (cmp != 0) {
+                        return cmp;
+                    }
+                }
+                return 0;
+            }
+        });
+
+        // Compare on original and sorted data, with one and with three threads
+        for (int[][] input : new int[][][] { data, sorted }) {
+            List<String> expected = getMSUs(new SUDA2(input), 0);
+            for (int threads : new int[] { 1, 3 }) {
+                SUDA2 suda2 = new SUDA2(input);
+                suda2.setThreads(threads);
+                suda2.setCompressRows(true);
+                compare("Compressed rows, " + (input == data ? "original" : "sorted") + " data, threads: " + threads, expected, suda2, 0);
+            }
+        }
+    }
+}
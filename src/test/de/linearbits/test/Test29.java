@@ -0,0 +1,68 @@
+/*
+ * SUDA2: An implementation of the SUDA2 algorithm for Java
+ * Copyright 2017 Fabian Prasser
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.linearbits.test;
+
+import java.io.IOException;
+
+import de.linearbits.suda2.SUDA2;
+import de.linearbits.suda2.SUDA2Exception;
+import de.linearbits.suda2.SUDA2StatisticsKeys;
+
+/**
+ * Test for executions with a memory budget
+ *
+ * @author Fabian Prasser
+ */
+public class Test29 extends AbstractTest {
+
+    /**
+     * Main entry point
+     * @param args
+     * @throws IOException
+     */
+    public static void main(String[] args) throws IOException {
+
+        // Load
+        int[][] data = getData("data/test.csv");
+
+        // Unlimited
+        long time = System.currentTimeMillis();
+        SUDA2StatisticsKeys keys1 = new SUDA2(data).getStatisticsKeys(0);
+        System.out.println("Unlimited: " + (System.currentTimeMillis() - time));
+
+        // Budgets requiring compression
+        for (long budget : new long[] { 8L << 20, 1L << 20, 512L << 10 }) {
+            time = System.currentTimeMillis();
+            SUDA2 suda2 = new SUDA2(data);
+            suda2.setMemoryBudget(budget);
+            SUDA2StatisticsKeys keys2 = suda2.getStatisticsKeys(0);
+            System.out.println("Budget " + budget + ": " + (System.currentTimeMillis() - time));
+            System.out.println(" - Equal: " + keys1.equals(keys2));
+        }
+
+        // Budget which is too small
+        time = System.currentTimeMillis();
+        SUDA2 suda2 = new SUDA2(data);
+        suda2.setMemoryBudget(128L << 10);
+        try {
+            suda2.getStatisticsKeys(0);
+            System.out.println(" - Failed: false");
+        } catch (SUDA2Exception e) {
+            System.out.println(" - Failed: true (" + e.getMessage() + ") after " + (System.currentTimeMillis() - time));
+        }
+    }
+}
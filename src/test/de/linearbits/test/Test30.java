@@ -0,0 +1,72 @@
+/*
+ * SUDA2: An implementation of the SUDA2 algorithm for Java
+ * Copyright 2017 Fabian Prasser
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.linearbits.test;
+
+import java.io.IOException;
+
+import de.linearbits.suda2.SUDA2;
+import de.linearbits.suda2.SUDA2StatisticsKeys;
+
+/**
+ * Test for spilling registries to a temporary file
+ *
+ * @author Fabian Prasser
+ */
+public class Test30 extends AbstractTest {
+
+    /**
+     * Main entry point
+     * @param args
+     * @throws IOException
+     */
+    public static void main(String[] args) throws IOException {
+
+        // Load
+        int[][] data = getData("data/test.csv");
+
+        // Without spilling
+        long time = System.currentTimeMillis();
+        SUDA2StatisticsKeys keys1 = new SUDA2(data).getStatisticsKeys(0);
+        System.out.println("Without spilling: " + (System.currentTimeMillis() - time));
+
+        // Spilling a number of levels
+        for (int levels = 1; levels <= 3; levels++) {
+            time = System.currentTimeMillis();
+            SUDA2 suda2 = new SUDA2(data);
+            suda2.setSpill(null, levels);
+            SUDA2StatisticsKeys keys2 = suda2.getStatisticsKeys(0);
+            System.out.println("Spilling " + levels + " levels: " + (System.currentTimeMillis() - time));
+            System.out.println(" - Equal: " + keys1.equals(keys2));
+        }
+
+        // Spilling with a memory budget
+        time = System.currentTimeMillis();
+        SUDA2 suda2 = new SUDA2(data);
+        suda2.setSpill(null, 2);
+        suda2.setMemoryBudget(512L << 10);
+        SUDA2StatisticsKeys keys2 = suda2.getStatisticsKeys(0);
+        System.out.println("Spilling with budget: " + (System.currentTimeMillis() - time));
+        System.out.println(" - Equal: " + keys1.equals(keys2));
+
+        // Spilling registries whose rows are the base of diffsets. Rows of MSUs are reported after
+        // the regions they have been read from have been released.
+        suda2 = new SUDA2(data);
+        suda2.setSpill(null, 2);
+        suda2.setDiffsetDepth(1);
+        compare("Spilling with diffsets", getMSUs(new SUDA2(data), 0), suda2, 0);
+    }
+}